@@ -19,24 +19,27 @@ package org.gradle.internal.hash;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * An immutable hash code. Must be 4-255 bytes long.
  * Inspired by the Google Guava project – https://github.com/google/guava.
+ *
+ * 128-bit hashes, which make up the vast majority of the hashes Gradle retains, are stored as two longs rather than as a byte array to reduce the number of objects on the heap.
  */
-public class HashCode implements Serializable, Comparable<HashCode> {
+public abstract class HashCode implements Serializable, Comparable<HashCode> {
     private static final int MIN_NUMBER_OF_BYTES = 4;
     private static final int MAX_NUMBER_OF_BYTES = 255;
     private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
-    private final byte[] bytes;
-
-    private HashCode(byte[] bytes) {
-        this.bytes = bytes;
+    private HashCode() {
     }
 
     static HashCode fromBytesNoCopy(byte[] bytes) {
-        return new HashCode(bytes);
+        if (bytes.length == HashCode128.NUMBER_OF_BYTES) {
+            return new HashCode128(bytesToLong(bytes, 0), bytesToLong(bytes, 8));
+        }
+        return new ByteArrayBackedHashCode(bytes);
     }
 
     public static HashCode fromBytes(byte[] bytes) {
@@ -44,6 +47,10 @@ public class HashCode implements Serializable, Comparable<HashCode> {
         if (bytes.length < MIN_NUMBER_OF_BYTES || bytes.length > MAX_NUMBER_OF_BYTES) {
             throw new IllegalArgumentException(String.format("Invalid hash code length: %d bytes", bytes.length));
         }
+        if (bytes.length == HashCode128.NUMBER_OF_BYTES) {
+            // The bytes are not retained, so there is no need to copy them
+            return fromBytesNoCopy(bytes);
+        }
         return fromBytesNoCopy(bytes.clone());
     }
 
@@ -88,58 +95,28 @@ public class HashCode implements Serializable, Comparable<HashCode> {
         throw new IllegalArgumentException("Illegal hexadecimal character: " + ch);
     }
 
-    public int length() {
-        return bytes.length;
-    }
-
-    public byte[] toByteArray() {
-        return bytes.clone();
-    }
-
-    @Override
-    public int hashCode() {
-        return (bytes[0] & 0xFF)
-            | ((bytes[1] & 0xFF) << 8)
-            | ((bytes[2] & 0xFF) << 16)
-            | ((bytes[3] & 0xFF) << 24);
-    }
-
-    @Override
-    public boolean equals(@Nullable Object obj) {
-        if (obj == this) {
-            return true;
+    private static long bytesToLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
         }
+        return value;
+    }
 
-        if (obj == null || obj.getClass() != HashCode.class) {
-            return false;
-        }
+    public abstract int length();
 
-        byte[] a = bytes;
-        byte[] b = ((HashCode) obj).bytes;
-        int length = a.length;
+    public abstract byte[] toByteArray();
 
-        if (b.length != length) {
-            return false;
-        }
-
-        for (int i = 0; i < length; i++) {
-            if (a[i] != b[i]) {
-                return false;
-            }
-        }
-
-        return true;
-    }
+    abstract byte getByte(int index);
 
     @Override
     public int compareTo(@Nonnull HashCode o) {
-        byte[] bytes2 = o.bytes;
         int result;
-        int len1 = bytes.length;
-        int len2 = bytes2.length;
+        int len1 = length();
+        int len2 = o.length();
         int length = Math.min(len1, len2);
         for (int idx = 0; idx < length; idx++) {
-            result = bytes[idx] - bytes2[idx];
+            result = getByte(idx) - o.getByte(idx);
             if (result != 0) {
                 return result;
             }
@@ -149,15 +126,138 @@ public class HashCode implements Serializable, Comparable<HashCode> {
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder(2 * bytes.length);
-        for (byte b : bytes) {
+        int length = length();
+        StringBuilder sb = new StringBuilder(2 * length);
+        for (int idx = 0; idx < length; idx++) {
+            byte b = getByte(idx);
             sb.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
         }
         return sb.toString();
     }
 
-    // Package private accessor used by MessageDigestHasher.putHash for performance reasons
-    byte[] getBytes() {
-        return bytes;
+    abstract byte[] getBytes();
+
+    // Package private, used by MessageDigestHasher.putHash to feed the hash without copying it into a new array.
+    // Relies on the hasher writing longs in little-endian byte order.
+    abstract void appendToHasher(Hasher hasher);
+
+    private static class HashCode128 extends HashCode {
+        private static final int NUMBER_OF_BYTES = 16;
+        private final long bits1;
+        private final long bits2;
+
+        HashCode128(long bits1, long bits2) {
+            this.bits1 = bits1;
+            this.bits2 = bits2;
+        }
+
+        @Override
+        public int length() {
+            return NUMBER_OF_BYTES;
+        }
+
+        @Override
+        public byte[] toByteArray() {
+            return getBytes();
+        }
+
+        @Override
+        byte getByte(int index) {
+            if (index < 8) {
+                return (byte) (bits1 >>> (56 - 8 * index));
+            }
+            return (byte) (bits2 >>> (56 - 8 * (index - 8)));
+        }
+
+        @Override
+        byte[] getBytes() {
+            byte[] bytes = new byte[NUMBER_OF_BYTES];
+            for (int i = 0; i < NUMBER_OF_BYTES; i++) {
+                bytes[i] = getByte(i);
+            }
+            return bytes;
+        }
+
+        @Override
+        void appendToHasher(Hasher hasher) {
+            // The hasher writes longs in little-endian order, reverse them to get the same bytes as getBytes()
+            hasher.putLong(Long.reverseBytes(bits1));
+            hasher.putLong(Long.reverseBytes(bits2));
+        }
+
+        @Override
+        public int hashCode() {
+            // Same value as for a byte array backed hash code: the first four bytes in little-endian order
+            return Integer.reverseBytes((int) (bits1 >>> 32));
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            // All 16 byte hash codes are represented by this class
+            if (obj == null || obj.getClass() != HashCode128.class) {
+                return false;
+            }
+
+            HashCode128 other = (HashCode128) obj;
+            return bits1 == other.bits1 && bits2 == other.bits2;
+        }
+    }
+
+    private static class ByteArrayBackedHashCode extends HashCode {
+        private final byte[] bytes;
+
+        ByteArrayBackedHashCode(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public byte[] toByteArray() {
+            return bytes.clone();
+        }
+
+        @Override
+        byte getByte(int index) {
+            return bytes[index];
+        }
+
+        @Override
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        void appendToHasher(Hasher hasher) {
+            hasher.putBytes(bytes);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (obj == null || obj.getClass() != ByteArrayBackedHashCode.class) {
+                return false;
+            }
+
+            return Arrays.equals(bytes, ((ByteArrayBackedHashCode) obj).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return (bytes[0] & 0xFF)
+                | ((bytes[1] & 0xFF) << 8)
+                | ((bytes[2] & 0xFF) << 16)
+                | ((bytes[3] & 0xFF) << 24);
+        }
     }
 }
@@ -192,7 +192,7 @@ public class Hashing {
 
         @Override
         public void putHash(HashCode hashCode) {
-            putBytes(hashCode.getBytes());
+            hashCode.appendToHasher(this);
         }
     }
 }
@@ -106,6 +106,53 @@ class HashCodeTest extends Specification {
         "bcdef123"   | "abcdef12"   | 1
     }
 
+    def "can represent 16 byte hash code"() {
+        def string = "0123456789abcdeffedcba9876543210"
+        def bytes = toBytes(0x01, 0x23, 0x45, 0x67, 0x89, 0xab, 0xcd, 0xef, 0xfe, 0xdc, 0xba, 0x98, 0x76, 0x54, 0x32, 0x10)
+
+        expect:
+        def fromString = HashCode.fromString(string)
+        def fromBytes = HashCode.fromBytes(bytes)
+        fromString.toString() == string
+        fromString.toByteArray() == bytes
+        fromString.length() == 16
+        fromString.hashCode() == 0x67452301
+        fromBytes.toString() == string
+        fromBytes.equals(fromString)
+        fromBytes.hashCode() == fromString.hashCode()
+        !fromBytes.equals(HashCode.fromString("0123456789abcdeffedcba9876543211"))
+        !fromBytes.equals(HashCode.fromString("0123456789abcdeffedcba98765432"))
+        !fromBytes.equals(HashCode.fromString("0123456789abcdeffedcba987654321000"))
+    }
+
+    def "16 byte hash code is not modified when source bytes change"() {
+        def bytes = toBytes([0x12] * 16)
+        def hash = HashCode.fromBytes(bytes)
+
+        when:
+        bytes[0] = 0x13
+
+        then:
+        hash.toString() == "12" * 16
+    }
+
+    def "compares 16 byte hash codes #a <=> #b: #result"() {
+        def hashA = HashCode.fromString(a)
+        def hashB = HashCode.fromString(b)
+
+        expect:
+        Math.signum(hashA.compareTo(hashB)) == result
+        Math.signum(hashB.compareTo(hashA)) == -result
+
+        where:
+        a                                    | b                                    | result
+        "0123456789abcdeffedcba9876543210"   | "0123456789abcdeffedcba9876543210"   | 0
+        "0123456789abcdeffedcba9876543210"   | "0123456789abcdeffedcba9876543211"   | -1
+        "8123456789abcdeffedcba9876543210"   | "0123456789abcdeffedcba9876543210"   | -1
+        "0123456789abcdeffedcba9876543210"   | "0123456789abcdeffedcba987654321000" | -1
+        "0123456789abcdeffedcba98765432"     | "0123456789abcdeffedcba9876543210"   | -1
+    }
+
     def "not equals with null"() {
         expect:
         HashCode.fromInt(0x12345678) != null
@@ -169,6 +216,21 @@ class HashCodeTest extends Specification {
         thrown Exception
     }
 
+    def "hashing a #length byte hash code uses the bytes of the hash code"() {
+        def hashCode = HashCode.fromBytes(toBytes((1..length).collect { it * 7 }))
+
+        def viaHash = Hashing.md5().newHasher()
+        viaHash.putHash(hashCode)
+        def viaBytes = Hashing.md5().newHasher()
+        viaBytes.putBytes(hashCode.toByteArray())
+
+        expect:
+        viaHash.hash() == viaBytes.hash()
+
+        where:
+        length << [4, 16, 20]
+    }
+
     private static byte[] toBytes(int ... elements) {
         toBytes(elements as List<Integer>)
     }
@@ -19,14 +19,23 @@ package org.gradle.api.execution.internal;
 import org.gradle.api.internal.GeneratedSubclasses;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository;
 import org.gradle.internal.execution.ExecuteTaskBuildOperationType;
 
+import javax.annotation.Nullable;
+
 public class ExecuteTaskBuildOperationDetails implements ExecuteTaskBuildOperationType.Details {
 
     private final TaskInternal task;
+    private final TaskExecutionDurationRepository durationRepository;
 
     public ExecuteTaskBuildOperationDetails(TaskInternal task) {
+        this(task, null);
+    }
+
+    public ExecuteTaskBuildOperationDetails(TaskInternal task, @Nullable TaskExecutionDurationRepository durationRepository) {
         this.task = task;
+        this.durationRepository = durationRepository;
     }
 
     // TODO: do not reference mutable state
@@ -35,6 +44,16 @@ public class ExecuteTaskBuildOperationDetails implements ExecuteTaskBuildOperati
         return task;
     }
 
+    /**
+     * The duration in milliseconds this task is expected to take when its actions are executed, based on previous executions.
+     * Returns null when the task has not been executed before. The duration is looked up in the persistent task history on each call.
+     */
+    // Note: internal, not used by scans plugin
+    @Nullable
+    public Long getExpectedDuration() {
+        return durationRepository == null ? null : durationRepository.getExpectedDuration(task.getPath());
+    }
+
     @Override
     public String getBuildPath() {
         return ((GradleInternal) task.getProject().getGradle()).getIdentityPath().toString();
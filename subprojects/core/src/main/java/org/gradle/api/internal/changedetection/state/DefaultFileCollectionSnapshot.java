@@ -27,21 +27,27 @@ import org.gradle.caching.internal.BuildCacheHasher;
 import org.gradle.caching.internal.DefaultBuildCacheHasher;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
-    private final Map<String, NormalizedFileSnapshot> snapshots;
+    private volatile Map<String, NormalizedFileSnapshot> snapshots;
+    private Factory<Map<String, NormalizedFileSnapshot>> snapshotsDecoder;
     private final TaskFilePropertyCompareStrategy compareStrategy;
     private final boolean pathIsAbsolute;
     private final Factory<List<File>> cachedElementsFactory = Factories.softReferenceCache(new Factory<List<File>>() {
@@ -69,13 +75,35 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
         this.pathIsAbsolute = pathIsAbsolute;
     }
 
+    /**
+     * Creates a snapshot whose file entries are only decoded when they are first needed.
+     */
+    private DefaultFileCollectionSnapshot(Factory<Map<String, NormalizedFileSnapshot>> snapshotsDecoder, HashCode hashCode, TaskFilePropertyCompareStrategy compareStrategy, boolean pathIsAbsolute) {
+        this.snapshotsDecoder = snapshotsDecoder;
+        this.hashCode = hashCode;
+        this.compareStrategy = compareStrategy;
+        this.pathIsAbsolute = pathIsAbsolute;
+    }
+
     @Override
     public Map<String, NormalizedFileSnapshot> getSnapshots() {
+        Map<String, NormalizedFileSnapshot> snapshots = this.snapshots;
+        if (snapshots == null) {
+            snapshots = decodeSnapshots();
+        }
+        return snapshots;
+    }
+
+    private synchronized Map<String, NormalizedFileSnapshot> decodeSnapshots() {
+        if (snapshots == null) {
+            snapshots = snapshotsDecoder.create();
+            snapshotsDecoder = null;
+        }
         return snapshots;
     }
 
     public Map<String, FileContentSnapshot> getContentSnapshots() {
-        return Maps.transformValues(snapshots, new Function<NormalizedFileSnapshot, FileContentSnapshot>() {
+        return Maps.transformValues(getSnapshots(), new Function<NormalizedFileSnapshot, FileContentSnapshot>() {
             @Override
             public FileContentSnapshot apply(NormalizedFileSnapshot normalizedSnapshot) {
                 return normalizedSnapshot.getSnapshot();
@@ -85,22 +113,24 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
 
     @Override
     public boolean isEmpty() {
-        return snapshots.isEmpty();
+        return getSnapshots().isEmpty();
     }
 
     @Override
     public Iterator<TaskStateChange> iterateContentChangesSince(FileCollectionSnapshot oldSnapshot, String fileType, boolean includeAdded) {
-        if (includeAdded && hashCode != null && getHash().equals(oldSnapshot.getHash())) {
+        // The hash covers the normalized path and content of every entry, so equal hashes mean there are no changes at all.
+        // The previous snapshot is loaded with its hash, so in this case its entries do not even need to be decoded.
+        if (getHash().equals(oldSnapshot.getHash())) {
             return Iterators.emptyIterator();
         }
-        return compareStrategy.iterateContentChangesSince(snapshots, oldSnapshot.getSnapshots(), fileType, pathIsAbsolute, includeAdded);
+        return compareStrategy.iterateContentChangesSince(getSnapshots(), oldSnapshot.getSnapshots(), fileType, pathIsAbsolute, includeAdded);
     }
 
     @Override
     public HashCode getHash() {
         if (hashCode == null) {
             DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
-            compareStrategy.appendToHasher(hasher, snapshots.values());
+            compareStrategy.appendToHasher(hasher, getSnapshots().values());
             hashCode = hasher.hash();
         }
         return hashCode;
@@ -117,6 +147,7 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
     }
 
     private List<File> doGetElements() {
+        Map<String, NormalizedFileSnapshot> snapshots = getSnapshots();
         List<File> files = Lists.newArrayListWithCapacity(snapshots.size());
         for (String name : snapshots.keySet()) {
             files.add(new File(name));
@@ -131,12 +162,12 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
 
     @Override
     public String toString() {
-        return compareStrategy + (pathIsAbsolute ? " with absolute paths" : "") + ": " + snapshots;
+        return compareStrategy + (pathIsAbsolute ? " with absolute paths" : "") + ": " + getSnapshots();
     }
 
     private List<File> doGetFiles() {
         List<File> files = Lists.newArrayList();
-        for (Map.Entry<String, NormalizedFileSnapshot> entry : snapshots.entrySet()) {
+        for (Map.Entry<String, NormalizedFileSnapshot> entry : getSnapshots().entrySet()) {
             if (entry.getValue().getSnapshot().getType() == FileType.RegularFile) {
                 files.add(new File(entry.getKey()));
             }
@@ -145,6 +176,9 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
     }
 
     public static class SerializerImpl extends AbstractSerializer<DefaultFileCollectionSnapshot> {
+        // Snapshots with more entries than this are stored as a separate block, which is only decoded when the hash does not match
+        private static final int LAZY_DECODING_THRESHOLD = 64;
+
         private final SnapshotMapSerializer snapshotMapSerializer;
         private final HashCodeSerializer hashCodeSerializer;
 
@@ -155,22 +189,42 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
 
         public DefaultFileCollectionSnapshot read(Decoder decoder) throws Exception {
             TaskFilePropertyCompareStrategy compareStrategy = TaskFilePropertyCompareStrategy.values()[decoder.readSmallInt()];
-            boolean hasHash = decoder.readBoolean();
-            HashCode hash = hasHash ? hashCodeSerializer.read(decoder) : null;
+            HashCode hash = hashCodeSerializer.read(decoder);
+            boolean pathIsAbsolute = decoder.readBoolean();
+            boolean lazy = decoder.readBoolean();
+            if (lazy) {
+                final byte[] encodedSnapshots = decoder.readBinary();
+                return new DefaultFileCollectionSnapshot(new Factory<Map<String, NormalizedFileSnapshot>>() {
+                    @Override
+                    public Map<String, NormalizedFileSnapshot> create() {
+                        try {
+                            return snapshotMapSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(encodedSnapshots), encodedSnapshots.length));
+                        } catch (Exception e) {
+                            throw UncheckedException.throwAsUncheckedException(e);
+                        }
+                    }
+                }, hash, compareStrategy, pathIsAbsolute);
+            }
             Map<String, NormalizedFileSnapshot> snapshots = snapshotMapSerializer.read(decoder);
-            boolean pathIsUnique = decoder.readBoolean();
-            return new DefaultFileCollectionSnapshot(snapshots, hash, compareStrategy, pathIsUnique);
+            return new DefaultFileCollectionSnapshot(snapshots, hash, compareStrategy, pathIsAbsolute);
         }
 
         public void write(Encoder encoder, DefaultFileCollectionSnapshot value) throws Exception {
             encoder.writeSmallInt(value.compareStrategy.ordinal());
-            boolean hasHash = value.hashCode != null;
-            encoder.writeBoolean(hasHash);
-            if (hasHash) {
-                hashCodeSerializer.write(encoder, value.getHash());
-            }
-            snapshotMapSerializer.write(encoder, value.snapshots);
+            hashCodeSerializer.write(encoder, value.getHash());
             encoder.writeBoolean(value.pathIsAbsolute);
+            Map<String, NormalizedFileSnapshot> snapshots = value.getSnapshots();
+            boolean lazy = snapshots.size() > LAZY_DECODING_THRESHOLD;
+            encoder.writeBoolean(lazy);
+            if (lazy) {
+                ByteArrayOutputStream encodedSnapshots = new ByteArrayOutputStream();
+                KryoBackedEncoder snapshotsEncoder = new KryoBackedEncoder(encodedSnapshots);
+                snapshotMapSerializer.write(snapshotsEncoder, snapshots);
+                snapshotsEncoder.flush();
+                encoder.writeBinary(encodedSnapshots.toByteArray());
+            } else {
+                snapshotMapSerializer.write(encoder, snapshots);
+            }
         }
 
         @Override
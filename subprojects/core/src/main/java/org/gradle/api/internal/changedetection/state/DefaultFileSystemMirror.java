@@ -17,21 +17,27 @@
 package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.api.internal.tasks.execution.TaskOutputChangesListener;
+import org.gradle.cache.internal.ReleasableInMemoryCache;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.classpath.CachedJarFileStore;
+import org.gradle.internal.classpath.ContentAddressedFileStore;
 import org.gradle.internal.file.DefaultFileHierarchySet;
 import org.gradle.internal.file.FileHierarchySet;
+import org.gradle.internal.file.FileType;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * See {@link DefaultFileSystemSnapshotter} for some more details
+ *
+ * The details of regular files that live in a {@link ContentAddressedFileStore} are kept between builds, until the process runs low on heap.
  */
-public class DefaultFileSystemMirror implements FileSystemMirror, TaskOutputChangesListener, RootBuildLifecycleListener {
+public class DefaultFileSystemMirror implements FileSystemMirror, TaskOutputChangesListener, RootBuildLifecycleListener, ReleasableInMemoryCache {
     // Maps from interned absolute path for a file to known details for the file.
     private final Map<String, FileSnapshot> files = new ConcurrentHashMap<String, FileSnapshot>();
     private final Map<String, FileSnapshot> cacheFiles = new ConcurrentHashMap<String, FileSnapshot>();
@@ -42,15 +48,21 @@ public class DefaultFileSystemMirror implements FileSystemMirror, TaskOutputChan
     private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
     private final Map<String, Snapshot> cacheSnapshots = new ConcurrentHashMap<String, Snapshot>();
     private final FileHierarchySet cachedDirectories;
+    private final FileHierarchySet contentAddressedDirectories;
 
     public DefaultFileSystemMirror(List<CachedJarFileStore> fileStores) {
         FileHierarchySet cachedDirectories = DefaultFileHierarchySet.of();
+        FileHierarchySet contentAddressedDirectories = DefaultFileHierarchySet.of();
         for (CachedJarFileStore fileStore : fileStores) {
             for (File file : fileStore.getFileStoreRoots()) {
                 cachedDirectories = cachedDirectories.plus(file);
+                if (fileStore instanceof ContentAddressedFileStore) {
+                    contentAddressedDirectories = contentAddressedDirectories.plus(file);
+                }
             }
         }
         this.cachedDirectories = cachedDirectories;
+        this.contentAddressedDirectories = contentAddressedDirectories;
     }
 
     @Nullable
@@ -129,12 +141,28 @@ public class DefaultFileSystemMirror implements FileSystemMirror, TaskOutputChan
 
     @Override
     public void beforeComplete() {
-        // We throw away all state between builds
+        // We throw away all state between builds, except for the details of regular files that live in a content addressed cache.
+        // The path of such a file always refers to the same content, so there is no need to look at them again in the next build.
+        // Directories in the caches can have new entries added to them and missing files may be created, so state about those is discarded.
+        // Other caches may contain files that are replaced, such as the class directories on the Gradle runtime classpath, so state about those is discarded too
         files.clear();
-        cacheFiles.clear();
         trees.clear();
-        cacheTrees.clear();
         snapshots.clear();
+        cacheTrees.clear();
+        Iterator<FileSnapshot> cachedFiles = cacheFiles.values().iterator();
+        while (cachedFiles.hasNext()) {
+            FileSnapshot cachedFile = cachedFiles.next();
+            if (cachedFile.getType() != FileType.RegularFile || !contentAddressedDirectories.contains(cachedFile.getPath())) {
+                cachedFiles.remove();
+            }
+        }
+        cacheSnapshots.keySet().retainAll(cacheFiles.keySet());
+    }
+
+    @Override
+    public void releaseRetainedValues() {
+        cacheFiles.clear();
+        cacheTrees.clear();
         cacheSnapshots.clear();
     }
 }
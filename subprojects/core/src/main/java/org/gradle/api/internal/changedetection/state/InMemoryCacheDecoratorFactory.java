@@ -32,7 +32,13 @@ import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.cache.internal.CrossProcessSynchronizingCache;
 import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.cache.internal.MultiProcessSafeAsyncPersistentIndexedCache;
+import org.gradle.cache.internal.ReleasableInMemoryCache;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -40,16 +46,32 @@ import java.util.concurrent.atomic.AtomicReference;
  * The in-memory cache is invalidated when the backing cache is changed by another process.
  *
  * Also decorates each cache so that updates to the backing cache are made asynchronously.
+ *
+ * The entries of the in-memory caches are discarded when the cross-build caches are released because the process is running low on heap.
  */
-public class InMemoryCacheDecoratorFactory {
+public class InMemoryCacheDecoratorFactory implements ReleasableInMemoryCache {
     private final static Logger LOG = Logging.getLogger(InMemoryCacheDecoratorFactory.class);
     private final boolean longLivingProcess;
     private final HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
     private final CrossBuildInMemoryCache<String, CacheDetails> caches;
+    // The in-memory caches are referenced by the decorated caches that use them, so reference them weakly here
+    private final Set<Cache<Object, Object>> inMemoryCaches = Collections.newSetFromMap(new WeakHashMap<Cache<Object, Object>, Boolean>());
 
     public InMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory) {
         this.longLivingProcess = longLivingProcess;
         caches = cacheFactory.newCache();
+        cacheFactory.register(this);
+    }
+
+    @Override
+    public void releaseRetainedValues() {
+        List<Cache<Object, Object>> toInvalidate;
+        synchronized (inMemoryCaches) {
+            toInvalidate = new ArrayList<Cache<Object, Object>>(inMemoryCaches);
+        }
+        for (Cache<Object, Object> inMemoryCache : toInvalidate) {
+            inMemoryCache.invalidateAll();
+        }
     }
 
     public CacheDecorator decorator(final int maxEntriesToKeepInMemory, final boolean cacheInMemoryForShortLivedProcesses) {
@@ -88,6 +110,9 @@ public class InMemoryCacheDecoratorFactory {
         final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
         Cache<Object, Object> inMemoryCache = cacheBuilder.build();
         evictionListener.setCache(inMemoryCache);
+        synchronized (inMemoryCaches) {
+            inMemoryCaches.add(inMemoryCache);
+        }
         return inMemoryCache;
     }
 
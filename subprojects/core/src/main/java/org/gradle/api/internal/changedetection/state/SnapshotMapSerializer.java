@@ -48,15 +48,17 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
     public Map<String, NormalizedFileSnapshot> read(Decoder decoder) throws Exception {
         int snapshotsCount = decoder.readSmallInt();
         Map<String, NormalizedFileSnapshot> snapshots = new LinkedHashMap<String, NormalizedFileSnapshot>(snapshotsCount);
+        PathReader absolutePaths = new PathReader();
+        PathReader normalizedPaths = new PathReader();
         for (int i = 0; i < snapshotsCount; i++) {
-            String absolutePath = stringInterner.intern(decoder.readString());
-            NormalizedFileSnapshot snapshot = readSnapshot(absolutePath, decoder, stringInterner);
+            String absolutePath = absolutePaths.read(decoder);
+            NormalizedFileSnapshot snapshot = readSnapshot(absolutePath, decoder, normalizedPaths);
             snapshots.put(absolutePath, snapshot);
         }
         return snapshots;
     }
 
-    private NormalizedFileSnapshot readSnapshot(String absolutePath, Decoder decoder, StringInterner stringInterner) throws IOException {
+    private NormalizedFileSnapshot readSnapshot(String absolutePath, Decoder decoder, PathReader normalizedPaths) throws IOException {
         byte fileSnapshotKind = decoder.readByte();
         FileContentSnapshot snapshot;
         switch (fileSnapshotKind) {
@@ -78,7 +80,7 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
             case NO_NORMALIZATION:
                 return new NonNormalizedFileSnapshot(absolutePath, snapshot);
             case DEFAULT_NORMALIZATION:
-                String normalizedPath = stringInterner.intern(decoder.readString());
+                String normalizedPath = normalizedPaths.read(decoder);
                 return new DefaultNormalizedFileSnapshot(normalizedPath, snapshot);
             case INDEXED_NORMALIZATION:
                 int index = decoder.readSmallInt();
@@ -93,10 +95,11 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
     @Override
     public void write(Encoder encoder, Map<String, NormalizedFileSnapshot> value) throws Exception {
         encoder.writeSmallInt(value.size());
-        for (String key : value.keySet()) {
-            encoder.writeString(key);
-            NormalizedFileSnapshot snapshot = value.get(key);
-            writeSnapshot(encoder, snapshot);
+        PathWriter absolutePaths = new PathWriter();
+        PathWriter normalizedPaths = new PathWriter();
+        for (Map.Entry<String, NormalizedFileSnapshot> entry : value.entrySet()) {
+            absolutePaths.write(encoder, entry.getKey());
+            writeSnapshot(encoder, entry.getValue(), normalizedPaths);
         }
     }
 
@@ -115,7 +118,7 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
         return Objects.hashCode(super.hashCode(), hashCodeSerializer);
     }
 
-    private void writeSnapshot(Encoder encoder, NormalizedFileSnapshot value) throws IOException {
+    private void writeSnapshot(Encoder encoder, NormalizedFileSnapshot value, PathWriter normalizedPaths) throws IOException {
         FileContentSnapshot snapshot = value.getSnapshot();
         if (snapshot instanceof DirContentSnapshot) {
             encoder.writeByte(DIR_SNAPSHOT);
@@ -132,7 +135,7 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
             encoder.writeByte(NO_NORMALIZATION);
         } else if (value instanceof DefaultNormalizedFileSnapshot) {
             encoder.writeByte(DEFAULT_NORMALIZATION);
-            encoder.writeString(value.getNormalizedPath());
+            normalizedPaths.write(encoder, value.getNormalizedPath());
         } else if (value instanceof IndexedNormalizedFileSnapshot) {
             encoder.writeByte(INDEXED_NORMALIZATION);
             encoder.writeSmallInt(((IndexedNormalizedFileSnapshot) value).getIndex());
@@ -142,4 +145,45 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
             throw new AssertionError();
         }
     }
+
+    /**
+     * Writes each path as the length of the prefix it shares with the previously written path, followed by the remaining characters.
+     * Snapshots are visited in file tree order, so consecutive paths usually share most of their parent directories.
+     */
+    private static class PathWriter {
+        private String previousPath = "";
+
+        void write(Encoder encoder, String path) throws IOException {
+            int prefixLength = commonPrefixLength(previousPath, path);
+            encoder.writeSmallInt(prefixLength);
+            encoder.writeString(path.substring(prefixLength));
+            previousPath = path;
+        }
+
+        private static int commonPrefixLength(String previous, String current) {
+            int maxLength = Math.min(previous.length(), current.length());
+            int length = 0;
+            while (length < maxLength && previous.charAt(length) == current.charAt(length)) {
+                length++;
+            }
+            // Do not split a surrogate pair
+            if (length > 0 && Character.isHighSurrogate(current.charAt(length - 1))) {
+                length--;
+            }
+            return length;
+        }
+    }
+
+    private class PathReader {
+        private String previousPath = "";
+
+        String read(Decoder decoder) throws IOException {
+            int prefixLength = decoder.readSmallInt();
+            String suffix = decoder.readString();
+            String path = prefixLength == 0 ? suffix : previousPath.substring(0, prefixLength).concat(suffix);
+            path = stringInterner.intern(path);
+            previousPath = path;
+            return path;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository;
 import org.gradle.execution.TaskExecutionGraphInternal;
 import org.gradle.internal.operations.BuildOperationCategory;
 import org.gradle.internal.operations.BuildOperationContext;
@@ -33,11 +34,13 @@ public class EventFiringTaskExecuter implements TaskExecuter {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final TaskExecutionGraphInternal taskExecutionGraph;
+    private final TaskExecutionDurationRepository durationRepository;
     private final TaskExecuter delegate;
 
-    public EventFiringTaskExecuter(BuildOperationExecutor buildOperationExecutor, TaskExecutionGraphInternal taskExecutionGraph, TaskExecuter delegate) {
+    public EventFiringTaskExecuter(BuildOperationExecutor buildOperationExecutor, TaskExecutionGraphInternal taskExecutionGraph, TaskExecutionDurationRepository durationRepository, TaskExecuter delegate) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.taskExecutionGraph = taskExecutionGraph;
+        this.durationRepository = durationRepository;
         this.delegate = delegate;
     }
 
@@ -62,7 +65,7 @@ public class EventFiringTaskExecuter implements TaskExecuter {
 
             @Override
             public BuildOperationDescriptor.Builder description() {
-                ExecuteTaskBuildOperationDetails taskOperation = new ExecuteTaskBuildOperationDetails(task);
+                ExecuteTaskBuildOperationDetails taskOperation = new ExecuteTaskBuildOperationDetails(task, durationRepository);
                 return BuildOperationDescriptor.displayName("Task " + task.getIdentityPath())
                     .name(task.getIdentityPath().toString())
                     .operationType(BuildOperationCategory.TASK)
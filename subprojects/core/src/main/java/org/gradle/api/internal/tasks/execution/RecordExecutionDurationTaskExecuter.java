@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.TaskExecutionContext;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+
+/**
+ * A {@link TaskExecuter} which records how long the actions of a task took to execute, so later builds can plan with it.
+ */
+public class RecordExecutionDurationTaskExecuter implements TaskExecuter {
+    private final TaskExecutionDurationRepository durationRepository;
+    private final TaskExecuter executer;
+
+    public RecordExecutionDurationTaskExecuter(TaskExecutionDurationRepository durationRepository, TaskExecuter executer) {
+        this.durationRepository = durationRepository;
+        this.executer = executer;
+    }
+
+    @Override
+    public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+        Timer timer = Time.startTimer();
+        executer.execute(task, state, context);
+        // Only record tasks that actually did their work, other outcomes say nothing about how long the task takes
+        if (state.getOutcome() == TaskExecutionOutcome.EXECUTED && state.getFailure() == null) {
+            durationRepository.recordDuration(task.getPath(), timer.getElapsedMillis());
+        }
+    }
+}
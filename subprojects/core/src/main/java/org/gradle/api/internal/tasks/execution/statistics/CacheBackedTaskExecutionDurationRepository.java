@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution.statistics;
+
+import org.gradle.api.internal.changedetection.state.TaskHistoryStore;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores a moving average of the execution duration of each task next to the task history.
+ */
+public class CacheBackedTaskExecutionDurationRepository implements TaskExecutionDurationRepository {
+    // Weight of the previous average, so that a single unusually slow or fast execution does not dominate the estimate
+    private static final int HISTORY_WEIGHT = 3;
+
+    private final PersistentIndexedCache<String, Long> durations;
+
+    public CacheBackedTaskExecutionDurationRepository(TaskHistoryStore cacheAccess) {
+        this.durations = cacheAccess.createCache("taskDurations", String.class, BaseSerializerFactory.LONG_SERIALIZER, 10000, true);
+    }
+
+    @Nullable
+    @Override
+    public Long getExpectedDuration(String taskPath) {
+        return durations.get(taskPath);
+    }
+
+    @Override
+    public void recordDuration(String taskPath, long durationMillis) {
+        Long previousDuration = durations.get(taskPath);
+        long expectedDuration = previousDuration == null
+            ? durationMillis
+            : (previousDuration * HISTORY_WEIGHT + durationMillis) / (HISTORY_WEIGHT + 1);
+        durations.put(taskPath, expectedDuration);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution.statistics;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps track of how long tasks took to execute in previous builds.
+ */
+public interface TaskExecutionDurationRepository {
+    /**
+     * Returns the expected execution duration in milliseconds for the task with the given path, or null when the task has not been executed before.
+     */
+    @Nullable
+    Long getExpectedDuration(String taskPath);
+
+    /**
+     * Records that the task with the given path took the given number of milliseconds to execute.
+     */
+    void recordDuration(String taskPath, long durationMillis);
+}
@@ -19,9 +19,7 @@ package org.gradle.api.internal.tasks.properties;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
@@ -32,6 +30,7 @@ import com.google.common.collect.Sets;
 import groovy.lang.GroovyObject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Task;
+import org.gradle.api.Transformer;
 import org.gradle.api.internal.AbstractTask;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.DynamicObjectAware;
@@ -58,6 +57,8 @@ import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.options.OptionValues;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.reflect.GroovyMethods;
 import org.gradle.internal.reflect.PropertyAccessorType;
 import org.gradle.internal.reflect.Types;
@@ -106,16 +107,15 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
     private final Map<Class<? extends Annotation>, PropertyAnnotationHandler> annotationHandlers;
     private final Multimap<Class<? extends Annotation>, Class<? extends Annotation>> annotationOverrides;
     private final Set<Class<? extends Annotation>> relevantAnnotationTypes;
-    private final LoadingCache<Class<?>, TypeMetadata> cache = CacheBuilder.newBuilder()
-        .weakKeys()
-        .build(new CacheLoader<Class<?>, TypeMetadata>() {
-            @Override
-            public TypeMetadata load(@Nonnull Class<?> type) {
-                return createTypeMetadata(type);
-            }
-        });
+    private final CrossBuildInMemoryCache<Class<?>, TypeMetadata> cache;
+    private final Transformer<TypeMetadata, Class<?>> typeMetadataFactory = new Transformer<TypeMetadata, Class<?>>() {
+        @Override
+        public TypeMetadata transform(Class<?> type) {
+            return createTypeMetadata(type);
+        }
+    };
 
-    public DefaultPropertyMetadataStore(Iterable<? extends PropertyAnnotationHandler> customAnnotationHandlers) {
+    public DefaultPropertyMetadataStore(Iterable<? extends PropertyAnnotationHandler> customAnnotationHandlers, CrossBuildInMemoryCacheFactory cacheFactory) {
         Iterable<PropertyAnnotationHandler> allAnnotationHandlers = Iterables.concat(HANDLERS, customAnnotationHandlers);
         Map<Class<? extends Annotation>, PropertyAnnotationHandler> annotationsHandlers = Maps.uniqueIndex(allAnnotationHandlers, new Function<PropertyAnnotationHandler, Class<? extends Annotation>>() {
             @Override
@@ -126,6 +126,7 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
         this.annotationHandlers = annotationsHandlers;
         this.annotationOverrides = collectAnnotationOverrides(allAnnotationHandlers);
         this.relevantAnnotationTypes = collectRelevantAnnotationTypes(annotationsHandlers.keySet());
+        this.cache = cacheFactory.newClassCache();
     }
 
     private static Multimap<Class<? extends Annotation>, Class<? extends Annotation>> collectAnnotationOverrides(Iterable<PropertyAnnotationHandler> allAnnotationHandlers) {
@@ -149,7 +150,7 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
 
     @Override
     public <T> TypeMetadata getTypeMetadata(Class<T> type) {
-        return cache.getUnchecked(type);
+        return cache.get(type, typeMetadataFactory);
     }
 
     private <T> TypeMetadata createTypeMetadata(Class<T> type) {
@@ -192,7 +193,11 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
                 }
             }
         });
-        return new DefaultTypeMetadata(ImmutableSet.<PropertyMetadata>builder().addAll(propertyContexts.values()).build());
+        ImmutableSet.Builder<PropertyMetadata> propertiesMetadata = ImmutableSet.builder();
+        for (DefaultPropertyMetadata propertyMetadata : propertyContexts.values()) {
+            propertiesMetadata.add(propertyMetadata.complete());
+        }
+        return new DefaultTypeMetadata(propertiesMetadata.build());
     }
 
     private Iterable<Annotation> mergeDeclaredAnnotations(Method method, @Nullable Field field, DefaultPropertyMetadata propertyContext) {
@@ -356,8 +361,8 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
         private final String fieldName;
         private final Method method;
         private Class<? extends Annotation> propertyType;
-        private final List<Annotation> annotations = Lists.newArrayList();
-        private final List<String> validationMessages = Lists.newArrayList();
+        private List<Annotation> annotations = Lists.newArrayList();
+        private List<String> validationMessages = Lists.newArrayList();
 
         public DefaultPropertyMetadata(Set<Class<? extends Annotation>> propertyTypeAnnotations, String fieldName, Method method) {
             this.propertyTypeAnnotations = propertyTypeAnnotations;
@@ -406,6 +411,19 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
             validationMessages.add(message);
         }
 
+        /**
+         * Freezes the collected state, so the metadata can be shared between builds and threads and handed out to each property value without copying.
+         */
+        public DefaultPropertyMetadata complete() {
+            annotations = ImmutableList.copyOf(annotations);
+            validationMessages = ImmutableList.copyOf(validationMessages);
+            if (propertyType != null) {
+                // Do this once per type instead of once per visited bean
+                method.setAccessible(true);
+            }
+            return this;
+        }
+
         @Override
         public List<String> getValidationMessages() {
             return validationMessages;
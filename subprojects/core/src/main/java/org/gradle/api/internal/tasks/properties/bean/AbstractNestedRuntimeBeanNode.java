@@ -18,7 +18,6 @@ package org.gradle.api.internal.tasks.properties.bean;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.google.common.collect.ImmutableList;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.PropertySpecFactory;
 import org.gradle.api.internal.tasks.TaskValidationContext;
@@ -100,10 +99,9 @@ public abstract class AbstractNestedRuntimeBeanNode extends RuntimeBeanNode<Obje
 
         public DefaultPropertyValue(String propertyName, List<Annotation> annotations, Object bean, Method method) {
             this.propertyName = propertyName;
-            this.annotations = ImmutableList.copyOf(annotations);
+            this.annotations = annotations;
             this.bean = bean;
             this.method = method;
-            method.setAccessible(true);
         }
 
         @Override
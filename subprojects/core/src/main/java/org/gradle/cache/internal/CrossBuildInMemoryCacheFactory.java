@@ -23,11 +23,15 @@ import org.gradle.internal.event.ListenerManager;
 
 import javax.annotation.Nullable;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A factory for {@link CrossBuildInMemoryCache} instances.
@@ -40,11 +44,40 @@ import java.util.WeakHashMap;
 @ThreadSafe
 public class CrossBuildInMemoryCacheFactory {
     private final ListenerManager listenerManager;
+    private final List<DefaultCrossBuildInMemoryCache<?, ?>> caches = new CopyOnWriteArrayList<DefaultCrossBuildInMemoryCache<?, ?>>();
+    private final Set<ReleasableInMemoryCache> registered = Collections.newSetFromMap(new WeakHashMap<ReleasableInMemoryCache, Boolean>());
 
     public CrossBuildInMemoryCacheFactory(ListenerManager listenerManager) {
         this.listenerManager = listenerManager;
     }
 
+    /**
+     * Discards the strong references that all caches created by this factory retain to values from the previous build session, so that the garbage collector can reclaim these values when the JVM runs low on heap.
+     * Values are still referenced by soft references, and are reused if they have not been collected. Also discards the state of each {@link #register(ReleasableInMemoryCache) registered} cache.
+     */
+    public void releaseRetainedValues() {
+        for (DefaultCrossBuildInMemoryCache<?, ?> cache : caches) {
+            cache.releaseRetainedValues();
+        }
+        List<ReleasableInMemoryCache> others;
+        synchronized (registered) {
+            others = new ArrayList<ReleasableInMemoryCache>(registered);
+        }
+        for (ReleasableInMemoryCache cache : others) {
+            cache.releaseRetainedValues();
+        }
+    }
+
+    /**
+     * Registers other in-memory state that is retained across builds, so that it is discarded by {@link #releaseRetainedValues()}.
+     * The state is referenced using a weak reference, so it does not need to be unregistered once it is no longer used.
+     */
+    public void register(ReleasableInMemoryCache cache) {
+        synchronized (registered) {
+            registered.add(cache);
+        }
+    }
+
     /**
      * Creates a new cache instance. Keys are always referenced using strong references, values by strong or soft references depending on their usage.
      *
@@ -53,6 +86,7 @@ public class CrossBuildInMemoryCacheFactory {
     public <K, V> CrossBuildInMemoryCache<K, V> newCache() {
         DefaultCrossBuildInMemoryCache<K, V> cache = new DefaultCrossBuildInMemoryCache<K, V>(new HashMap<K, SoftReference<V>>());
         listenerManager.addListener(cache);
+        caches.add(cache);
         return cache;
     }
 
@@ -64,10 +98,11 @@ public class CrossBuildInMemoryCacheFactory {
     public <V> CrossBuildInMemoryCache<Class<?>, V> newClassCache() {
         DefaultCrossBuildInMemoryCache<Class<?>, V> cache = new DefaultCrossBuildInMemoryCache<Class<?>, V>(new WeakHashMap<Class<?>, SoftReference<V>>());
         listenerManager.addListener(cache);
+        caches.add(cache);
         return cache;
     }
 
-    private static class DefaultCrossBuildInMemoryCache<K, V> implements CrossBuildInMemoryCache<K, V>, SessionLifecycleListener {
+    private static class DefaultCrossBuildInMemoryCache<K, V> implements CrossBuildInMemoryCache<K, V>, SessionLifecycleListener, ReleasableInMemoryCache {
         private final Object lock = new Object();
         private final Map<K, V> valuesForThisSession = new HashMap<K, V>();
         // This is used only to retain strong references to the values
@@ -92,6 +127,13 @@ public class CrossBuildInMemoryCacheFactory {
             }
         }
 
+        @Override
+        public void releaseRetainedValues() {
+            synchronized (lock) {
+                valuesForPreviousSession.clear();
+            }
+        }
+
         @Override
         public void clear() {
             synchronized (lock) {
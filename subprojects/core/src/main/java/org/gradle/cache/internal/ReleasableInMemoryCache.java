@@ -0,0 +1,30 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.cache.internal;
+
+/**
+ * In-memory state that is retained across builds and that can be discarded when the process is running low on heap.
+ *
+ * @see CrossBuildInMemoryCacheFactory#register(ReleasableInMemoryCache)
+ */
+public interface ReleasableInMemoryCache {
+    /**
+     * Discards the state that is retained from previous builds. The state is recreated on demand.
+     */
+    void releaseRetainedValues();
+}
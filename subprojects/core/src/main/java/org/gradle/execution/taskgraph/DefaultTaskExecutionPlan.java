@@ -100,6 +100,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     private final Map<File, String> canonicalizedFileCache = Maps.newIdentityHashMap();
     private final Map<Pair<TaskInfo, TaskInfo>, Boolean> reachableCache = Maps.newHashMap();
     private final Set<TaskInfo> dependenciesCompleteCache = Sets.newHashSet();
+    private final Map<TaskInfo, TaskInfo> incompleteDependencyCache = Maps.newIdentityHashMap();
     private final WorkerLeaseService workerLeaseService;
     private final GradleInternal gradle;
 
@@ -521,6 +522,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         canonicalizedFileCache.clear();
         reachableCache.clear();
         dependenciesCompleteCache.clear();
+        incompleteDependencyCache.clear();
         runningTasks.clear();
     }
 
@@ -552,6 +554,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         Iterator<TaskInfo> iterator = executionQueue.iterator();
         while (iterator.hasNext()) {
             TaskInfo taskInfo = iterator.next();
+            if (isFinished(taskInfo)) {
+                // Tasks skipped on failure or cancellation will never be selected, don't look at them again
+                iterator.remove();
+                continue;
+            }
             if (taskInfo.isReady() && allDependenciesComplete(taskInfo)) {
                 ResourceLock projectLock = getProjectLock(taskInfo);
                 TaskMutationInfo taskMutationInfo = getResolvedTaskMutationInfo(taskInfo);
@@ -607,17 +614,31 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         return taskMutationInfo;
     }
 
+    private static boolean isFinished(TaskInfo taskInfo) {
+        // A task that must not run can still be enforced by a finalizer later on
+        return taskInfo.isComplete() && !taskInfo.isMustNotRun();
+    }
+
     private boolean allDependenciesComplete(TaskInfo taskInfo) {
         if (dependenciesCompleteCache.contains(taskInfo)) {
             return true;
         }
 
-        boolean dependenciesComplete = taskInfo.allDependenciesComplete();
-        if (dependenciesComplete) {
-            dependenciesCompleteCache.add(taskInfo);
+        // Most tasks are waiting for the same dependency as the last time they were checked, so look at that one first
+        TaskInfo incompleteDependency = incompleteDependencyCache.get(taskInfo);
+        if (incompleteDependency != null && !incompleteDependency.isComplete()) {
+            return false;
+        }
+
+        incompleteDependency = taskInfo.getFirstIncompleteDependency();
+        if (incompleteDependency != null) {
+            incompleteDependencyCache.put(taskInfo, incompleteDependency);
+            return false;
         }
 
-        return dependenciesComplete;
+        incompleteDependencyCache.remove(taskInfo);
+        dependenciesCompleteCache.add(taskInfo);
+        return true;
     }
 
     private boolean allProjectsLocked() {
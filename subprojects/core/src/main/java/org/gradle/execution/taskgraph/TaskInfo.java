@@ -23,6 +23,7 @@ import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.specs.Spec;
 import org.gradle.util.Path;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.TreeSet;
 
@@ -158,26 +159,30 @@ public abstract class TaskInfo implements Comparable<TaskInfo> {
 
     public abstract Throwable getTaskFailure();
 
-    public boolean allDependenciesComplete() {
+    /**
+     * Returns the first dependency that prevents this task from running, or null when all dependencies are complete.
+     */
+    @Nullable
+    public TaskInfo getFirstIncompleteDependency() {
         for (TaskInfo dependency : mustSuccessors) {
             if (!dependency.isComplete()) {
-                return false;
+                return dependency;
             }
         }
 
         for (TaskInfo dependency : dependencySuccessors) {
             if (!dependency.isComplete()) {
-                return false;
+                return dependency;
             }
         }
 
         for (TaskInfo dependency : finalizingSuccessors) {
             if (!dependency.isComplete()) {
-                return false;
+                return dependency;
             }
         }
 
-        return true;
+        return null;
     }
 
     public boolean allDependenciesSuccessful() {
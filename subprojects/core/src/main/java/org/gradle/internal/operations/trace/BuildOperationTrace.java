@@ -79,6 +79,12 @@ import static org.gradle.internal.Cast.uncheckedCast;
  * The «path-base» param is optional.
  * If invoked as `-Dorg.gradle.internal.operations.trace`, a base value of "operations" will be used.
  *
+ * Building the trees requires holding all operations in memory, which is expensive for large builds.
+ * The tree files can be skipped with `-Dorg.gradle.internal.operations.trace.tree=false`, leaving only the log,
+ * which is buffered rather than flushed for each event and can be read later via {@link #read(String)}.
+ * The log is flushed whenever a root operation finishes and at least once a second while events are written,
+ * so that it remains useful when the build crashes.
+ *
  * The “trace” produced here is different to the trace produced by Gradle Profiler.
  * There, the focus is analyzing the performance profile.
  * Here, the focus is debugging/developing the information structure of build operations.
@@ -88,12 +94,18 @@ import static org.gradle.internal.Cast.uncheckedCast;
 public class BuildOperationTrace implements Stoppable {
 
     public static final String SYSPROP = "org.gradle.internal.operations.trace";
+    public static final String TREE_SYSPROP = "org.gradle.internal.operations.trace.tree";
+
+    private static final int LOG_BUFFER_SIZE = 64 * 1024;
+    private static final long LOG_FLUSH_INTERVAL_MILLIS = 1000;
 
     private static final byte[] NEWLINE = "\n".getBytes();
     private static final byte[] INDENT = "    ".getBytes();
 
     private final String basePath;
+    private final boolean writeTrees;
     private final OutputStream logOutputStream;
+    private long lastFlush;
 
     private final BuildOperationListenerManager buildOperationListenerManager;
     private final ListenerManager listenerManager;
@@ -105,12 +117,10 @@ public class BuildOperationTrace implements Stoppable {
         this.listenerManager = listenerManager;
 
         Map<String, String> sysProps = startParameter.getSystemPropertiesArgs();
-        String basePath = sysProps.get(SYSPROP);
-        if (basePath == null) {
-            basePath = System.getProperty(SYSPROP);
-        }
+        String basePath = getProperty(sysProps, SYSPROP);
 
         this.basePath = basePath;
+        this.writeTrees = !Boolean.FALSE.toString().equals(getProperty(sysProps, TREE_SYSPROP));
         if (this.basePath == null || basePath.equals(Boolean.FALSE.toString())) {
             this.logOutputStream = null;
             return;
@@ -125,7 +135,8 @@ public class BuildOperationTrace implements Stoppable {
             //noinspection ResultOfMethodCallIgnored
             logFile.createNewFile();
 
-            this.logOutputStream = new BufferedOutputStream(new FileOutputStream(logFile));
+            this.logOutputStream = new BufferedOutputStream(new FileOutputStream(logFile), LOG_BUFFER_SIZE);
+            this.lastFlush = System.currentTimeMillis();
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -134,6 +145,14 @@ public class BuildOperationTrace implements Stoppable {
         listenerManager.addListener(listener);
     }
 
+    private static String getProperty(Map<String, String> sysProps, String name) {
+        String value = sysProps.get(name);
+        if (value == null) {
+            value = System.getProperty(name);
+        }
+        return value;
+    }
+
     @Override
     public void stop() {
         buildOperationListenerManager.removeListener(listener);
@@ -145,9 +164,11 @@ public class BuildOperationTrace implements Stoppable {
                     logOutputStream.close();
                 }
 
-                final List<BuildOperationRecord> roots = readLogToTreeRoots(logFile(basePath));
-                writeDetailTree(roots);
-                writeSummaryTree(roots);
+                if (writeTrees) {
+                    final List<BuildOperationRecord> roots = readLogToTreeRoots(logFile(basePath));
+                    writeDetailTree(roots);
+                    writeSummaryTree(roots);
+                }
             } catch (IOException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
@@ -390,20 +411,17 @@ public class BuildOperationTrace implements Stoppable {
 
         @Override
         public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
-            if (buildOperation.getId().getId() == 11) {
-                int i = 1;
-            }
-            new Entry(new SerializedOperationStart(buildOperation, startEvent), false).add();
+            new Entry(new SerializedOperationStart(buildOperation, startEvent), false, false).add();
         }
 
         @Override
         public void progress(OperationIdentifier buildOperationId, OperationProgressEvent progressEvent) {
-            new Entry(new SerializedOperationProgress(buildOperationId, progressEvent), false).add();
+            new Entry(new SerializedOperationProgress(buildOperationId, progressEvent), false, false).add();
         }
 
         @Override
         public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
-            new Entry(new SerializedOperationFinish(buildOperation, finishEvent), false).add();
+            new Entry(new SerializedOperationFinish(buildOperation, finishEvent), false, buildOperation.getParentId() == null).add();
         }
 
         private void stopBuffering() {
@@ -426,10 +444,12 @@ public class BuildOperationTrace implements Stoppable {
         private final class Entry {
             final SerializedOperation operation;
             final boolean indent;
+            final boolean flush;
 
-            Entry(SerializedOperation operation, boolean indent) {
+            Entry(SerializedOperation operation, boolean indent, boolean flush) {
                 this.operation = operation;
                 this.indent = indent;
+                this.flush = flush;
             }
 
             public void add() {
@@ -437,11 +457,6 @@ public class BuildOperationTrace implements Stoppable {
                     bufferLock.lock();
                     try {
                         if (buffering) {
-                            if (operation instanceof SerializedOperationStart) {
-                                if (((SerializedOperationStart) operation).id == 11) {
-                                    int i = 1;
-                                }
-                            }
                             buffer.add(this);
                         } else {
                             write();
@@ -456,15 +471,21 @@ public class BuildOperationTrace implements Stoppable {
 
             @SuppressWarnings("ConstantConditions")
             private void write() {
-                String json = JsonOutput.toJson(operation.toMap());
+                byte[] json = JsonOutput.toJson(operation.toMap()).getBytes(Charsets.UTF_8);
                 try {
                     synchronized (logOutputStream) {
                         if (indent) {
                             logOutputStream.write(INDENT);
                         }
-                        logOutputStream.write(json.getBytes("UTF-8"));
+                        logOutputStream.write(json);
                         logOutputStream.write(NEWLINE);
-                        logOutputStream.flush();
+
+                        // Only flush at the end of root operations or periodically, so that the events of a crashed build are not lost
+                        long now = System.currentTimeMillis();
+                        if (flush || now - lastFlush >= LOG_FLUSH_INTERVAL_MILLIS) {
+                            logOutputStream.flush();
+                            lastFlush = now;
+                        }
                     }
                 } catch (IOException e) {
                     throw UncheckedException.throwAsUncheckedException(e);
@@ -17,6 +17,7 @@
 package org.gradle.internal.operations.trace;
 
 import com.google.common.collect.ImmutableMap;
+import org.gradle.api.execution.internal.ExecuteTaskBuildOperationDetails;
 import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType;
 import org.gradle.internal.execution.ExecuteTaskBuildOperationType;
 import org.gradle.internal.operations.BuildOperationDescriptor;
@@ -53,6 +54,12 @@ class SerializedOperationStart implements SerializedOperation {
             map.put("taskPath", cast.getTaskPath());
             map.put("taskClass", cast.getTaskClass().getName());
             map.put("taskId", cast.getTaskId());
+            if (details instanceof ExecuteTaskBuildOperationDetails) {
+                Long expectedDuration = ((ExecuteTaskBuildOperationDetails) details).getExpectedDuration();
+                if (expectedDuration != null) {
+                    map.put("expectedDuration", expectedDuration);
+                }
+            }
             return map;
         }
 
@@ -140,9 +140,10 @@ public class GradleUserHomeScopeServices {
         return new RegistryAwareClassLoaderHierarchyHasher(registry, classLoaderHasher);
     }
 
-    FileSystemMirror createFileSystemMirror(ListenerManager listenerManager, List<CachedJarFileStore> fileStores) {
+    FileSystemMirror createFileSystemMirror(ListenerManager listenerManager, List<CachedJarFileStore> fileStores, CrossBuildInMemoryCacheFactory cacheFactory) {
         DefaultFileSystemMirror fileSystemMirror = new DefaultFileSystemMirror(fileStores);
         listenerManager.addListener(fileSystemMirror);
+        cacheFactory.register(fileSystemMirror);
         return fileSystemMirror;
     }
 
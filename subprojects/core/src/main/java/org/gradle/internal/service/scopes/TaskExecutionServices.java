@@ -46,6 +46,7 @@ import org.gradle.api.internal.tasks.execution.ExecuteActionsTaskExecuter;
 import org.gradle.api.internal.tasks.execution.ExecuteAtMostOnceTaskExecuter;
 import org.gradle.api.internal.tasks.execution.FinalizeInputFilePropertiesTaskExecuter;
 import org.gradle.api.internal.tasks.execution.OutputDirectoryCreatingTaskExecuter;
+import org.gradle.api.internal.tasks.execution.RecordExecutionDurationTaskExecuter;
 import org.gradle.api.internal.tasks.execution.ResolveBuildCacheKeyExecuter;
 import org.gradle.api.internal.tasks.execution.ResolveTaskArtifactStateTaskExecuter;
 import org.gradle.api.internal.tasks.execution.ResolveTaskOutputCachingStateExecuter;
@@ -56,6 +57,8 @@ import org.gradle.api.internal.tasks.execution.SkipTaskWithNoActionsExecuter;
 import org.gradle.api.internal.tasks.execution.SkipUpToDateTaskExecuter;
 import org.gradle.api.internal.tasks.execution.TaskOutputChangesListener;
 import org.gradle.api.internal.tasks.execution.ValidatingTaskExecuter;
+import org.gradle.api.internal.tasks.execution.statistics.CacheBackedTaskExecutionDurationRepository;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository;
 import org.gradle.api.internal.tasks.properties.PropertyWalker;
 import org.gradle.api.internal.tasks.properties.annotations.FileSnapshottingPropertyAnnotationHandler;
 import org.gradle.api.invocation.Gradle;
@@ -109,7 +112,8 @@ public class TaskExecutionServices {
                                     PropertyWalker propertyWalker,
                                     TaskExecutionGraphInternal taskExecutionGraph,
                                     BuildInvocationScopeId buildInvocationScopeId,
-                                    BuildCancellationToken buildCancellationToken
+                                    BuildCancellationToken buildCancellationToken,
+                                    TaskExecutionDurationRepository durationRepository
     ) {
 
         boolean buildCacheEnabled = buildCacheController.isEnabled();
@@ -124,6 +128,7 @@ public class TaskExecutionServices {
             buildInvocationScopeId,
             buildCancellationToken
         );
+        executer = new RecordExecutionDurationTaskExecuter(durationRepository, executer);
         executer = new OutputDirectoryCreatingTaskExecuter(executer);
         if (buildCacheEnabled) {
             executer = new SkipCachedTaskExecuter(
@@ -147,7 +152,7 @@ public class TaskExecutionServices {
         executer = new SkipOnlyIfTaskExecuter(executer);
         executer = new ExecuteAtMostOnceTaskExecuter(executer);
         executer = new CatchExceptionTaskExecuter(executer);
-        executer = new EventFiringTaskExecuter(buildOperationExecutor, taskExecutionGraph, executer);
+        executer = new EventFiringTaskExecuter(buildOperationExecutor, taskExecutionGraph, durationRepository, executer);
         return executer;
     }
 
@@ -155,6 +160,10 @@ public class TaskExecutionServices {
         return new DefaultTaskHistoryStore(gradle, cacheRepository, inMemoryCacheDecoratorFactory);
     }
 
+    TaskExecutionDurationRepository createTaskExecutionDurationRepository(TaskHistoryStore cacheAccess) {
+        return new CacheBackedTaskExecutionDurationRepository(cacheAccess);
+    }
+
     FileCollectionSnapshotterRegistry createFileCollectionSnapshotterRegistry(ServiceRegistry serviceRegistry) {
         List<FileSnapshottingPropertyAnnotationHandler> handlers = serviceRegistry.getAll(FileSnapshottingPropertyAnnotationHandler.class);
         ImmutableList.Builder<FileCollectionSnapshotter> snapshotterImplementations = ImmutableList.builder();
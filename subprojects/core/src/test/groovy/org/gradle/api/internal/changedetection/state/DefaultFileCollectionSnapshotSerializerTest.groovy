@@ -63,4 +63,48 @@ class DefaultFileCollectionSnapshotSerializerTest extends SerializerSpec {
         then:
         out.snapshots.keySet() as List == ['/3', '/2', '/1']
     }
+
+    def "reads and writes paths sharing common prefixes"() {
+        def hash = Hashing.md5().hashString("foo")
+        def paths = [
+            "/root/project/build/classes/java/main/org/gradle/A.class",
+            "/root/project/build/classes/java/main/org/gradle/B.class",
+            "/root/project/build/classes/java/main/org/gradle/sub/C.class",
+            "/root/project/build/classes",
+            "/root/project/build/classes/java/main/org/gradle/\uD83D\uDE00.class",
+            "/root/project/build/classes/java/main/org/gradle/\uD83D\uDE01.class",
+            "/other"
+        ]
+        def snapshots = new LinkedHashMap()
+        paths.each { path ->
+            snapshots.put(path, new DefaultNormalizedFileSnapshot(path.substring(path.lastIndexOf("/") + 1), new FileHashSnapshot(hash)))
+        }
+
+        when:
+        DefaultFileCollectionSnapshot out = serialize(new DefaultFileCollectionSnapshot(snapshots, ORDERED, true), serializer)
+
+        then:
+        out.snapshots.keySet() as List == paths
+        paths.each { path ->
+            assert out.snapshots[path].normalizedPath == snapshots[path].normalizedPath
+        }
+    }
+
+    def "reads and writes snapshot with many entries"() {
+        def snapshots = new LinkedHashMap()
+        (1..100).each { i ->
+            snapshots.put("/dir/file${i}.txt".toString(), new DefaultNormalizedFileSnapshot("file${i}.txt".toString(), new FileHashSnapshot(HashCode.fromInt(i))))
+        }
+        def original = new DefaultFileCollectionSnapshot(snapshots, UNORDERED, false)
+
+        when:
+        DefaultFileCollectionSnapshot out = serialize(original, serializer)
+
+        then:
+        out.hash == original.hash
+        out.snapshots.keySet() as List == snapshots.keySet() as List
+        out.snapshots["/dir/file42.txt"].normalizedPath == "file42.txt"
+        out.snapshots["/dir/file42.txt"].snapshot.hash == HashCode.fromInt(42)
+        !out.pathIsAbsolute
+    }
 }
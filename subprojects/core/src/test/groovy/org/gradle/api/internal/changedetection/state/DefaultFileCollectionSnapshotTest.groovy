@@ -93,4 +93,37 @@ class DefaultFileCollectionSnapshotTest extends Specification {
             .hash())
         0 * _
     }
+
+    def "does not compare file entries when hash matches previous snapshot"() {
+        def snapshot = new DefaultFileCollectionSnapshot([
+            "file1.txt": new DefaultNormalizedFileSnapshot("file1.txt", new FileHashSnapshot(HashCode.fromInt(123))),
+            "file2.txt": new DefaultNormalizedFileSnapshot("file2.txt", new FileHashSnapshot(HashCode.fromInt(234))),
+        ], UNORDERED, false)
+        def previousSnapshot = Mock(FileCollectionSnapshot)
+
+        when:
+        def changes = snapshot.iterateContentChangesSince(previousSnapshot, "Input", true)
+
+        then:
+        !changes.hasNext()
+        1 * previousSnapshot.getHash() >> snapshot.hash
+        0 * previousSnapshot._
+    }
+
+    def "compares file entries when hash differs from previous snapshot"() {
+        def snapshot = new DefaultFileCollectionSnapshot([
+            "file1.txt": new DefaultNormalizedFileSnapshot("file1.txt", new FileHashSnapshot(HashCode.fromInt(123))),
+            "file2.txt": new DefaultNormalizedFileSnapshot("file2.txt", new FileHashSnapshot(HashCode.fromInt(234))),
+        ], UNORDERED, false)
+        def previousSnapshot = new DefaultFileCollectionSnapshot([
+            "file1.txt": new DefaultNormalizedFileSnapshot("file1.txt", new FileHashSnapshot(HashCode.fromInt(123))),
+            "file2.txt": new DefaultNormalizedFileSnapshot("file2.txt", new FileHashSnapshot(HashCode.fromInt(345))),
+        ], UNORDERED, false)
+
+        when:
+        def changes = snapshot.iterateContentChangesSince(previousSnapshot, "Input", true).toList()
+
+        then:
+        changes*.toString() == ["Input file file2.txt has changed."]
+    }
 }
@@ -19,6 +19,8 @@ package org.gradle.api.internal.changedetection.state
 import org.gradle.BuildResult
 import org.gradle.api.internal.GradleInternal
 import org.gradle.internal.classpath.CachedJarFileStore
+import org.gradle.internal.classpath.ContentAddressedFileStore
+import org.gradle.internal.file.FileType
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -30,12 +32,16 @@ class DefaultFileSystemMirrorTest extends Specification {
 
     DefaultFileSystemMirror mirror
     TestFile cacheDir
+    TestFile otherCacheDir
 
     def setup() {
         cacheDir = tmpDir.createDir("cache")
-        def fileStore = Stub(CachedJarFileStore)
+        otherCacheDir = tmpDir.createDir("other-cache")
+        def fileStore = Stub(ContentAddressedFileStore)
         fileStore.fileStoreRoots >> [cacheDir]
-        mirror = new DefaultFileSystemMirror([fileStore])
+        def otherFileStore = Stub(CachedJarFileStore)
+        otherFileStore.fileStoreRoots >> [otherCacheDir]
+        mirror = new DefaultFileSystemMirror([fileStore, otherFileStore])
     }
 
     def "keeps state about a file until task outputs are generated"() {
@@ -104,7 +110,9 @@ class DefaultFileSystemMirrorTest extends Specification {
 
     def "does not discard state about a file that lives in the caches when task outputs are generated"() {
         def file = cacheDir.file("some/dir/a")
-        def fileSnapshot = Stub(FileSnapshot)
+        def fileSnapshot = Stub(FileSnapshot) {
+            getType() >> FileType.Directory
+        }
         def fileTreeSnapshot = Stub(FileTreeSnapshot)
         def snapshot = Stub(Snapshot)
         def buildResult = Stub(BuildResult)
@@ -141,4 +149,87 @@ class DefaultFileSystemMirrorTest extends Specification {
         mirror.getDirectoryTree(file.path) == null
         mirror.getContent(file.path) == null
     }
+
+    def "keeps state about a regular file that lives in the caches across builds"() {
+        def file = cacheDir.file("some/dir/a.jar")
+        def fileSnapshot = Stub(FileSnapshot) {
+            getPath() >> file.path
+            getType() >> FileType.RegularFile
+        }
+        def fileTreeSnapshot = Stub(FileTreeSnapshot) {
+            getPath() >> file.path
+        }
+        def snapshot = Stub(Snapshot)
+
+        when:
+        mirror.putFile(fileSnapshot)
+        mirror.putDirectory(fileTreeSnapshot)
+        mirror.putContent(file.path, snapshot)
+        mirror.beforeComplete()
+
+        then:
+        mirror.getFile(file.path) == fileSnapshot
+        mirror.getContent(file.path) == snapshot
+        mirror.getDirectoryTree(file.path) == null
+    }
+
+    def "discards state about a missing file that lives in the caches at end of build"() {
+        def file = cacheDir.file("some/dir/a.jar")
+        def fileSnapshot = Stub(FileSnapshot) {
+            getPath() >> file.path
+            getType() >> FileType.Missing
+        }
+
+        when:
+        mirror.putFile(fileSnapshot)
+        mirror.putContent(file.path, Stub(Snapshot))
+        mirror.beforeComplete()
+
+        then:
+        mirror.getFile(file.path) == null
+        mirror.getContent(file.path) == null
+    }
+
+    def "discards state about a regular file that lives in a cache that is not content addressed at end of build"() {
+        def file = otherCacheDir.file("some/dir/a.jar")
+        def fileSnapshot = Stub(FileSnapshot) {
+            getPath() >> file.path
+            getType() >> FileType.RegularFile
+        }
+        def snapshot = Stub(Snapshot)
+
+        when:
+        mirror.putFile(fileSnapshot)
+        mirror.putContent(file.path, snapshot)
+        mirror.beforeTaskOutputChanged()
+
+        then:
+        mirror.getFile(file.path) == fileSnapshot
+        mirror.getContent(file.path) == snapshot
+
+        when:
+        mirror.beforeComplete()
+
+        then:
+        mirror.getFile(file.path) == null
+        mirror.getContent(file.path) == null
+    }
+
+    def "discards state about a regular file that lives in the caches when retained values are released"() {
+        def file = cacheDir.file("some/dir/a.jar")
+        def fileSnapshot = Stub(FileSnapshot) {
+            getPath() >> file.path
+            getType() >> FileType.RegularFile
+        }
+
+        when:
+        mirror.putFile(fileSnapshot)
+        mirror.putContent(file.path, Stub(Snapshot))
+        mirror.beforeComplete()
+        mirror.releaseRetainedValues()
+
+        then:
+        mirror.getFile(file.path) == null
+        mirror.getContent(file.path) == null
+    }
 }
@@ -25,7 +25,8 @@ import org.gradle.internal.event.DefaultListenerManager
 import spock.lang.Specification
 
 class InMemoryCacheDecoratorFactoryTest extends Specification {
-    def cacheFactory = new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+    def crossBuildCacheFactory = new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())
+    def cacheFactory = new InMemoryCacheDecoratorFactory(false, crossBuildCacheFactory)
     def target = Mock(MultiProcessSafePersistentIndexedCache)
     def asyncCacheAccess = Mock(AsyncCacheAccess)
     def crossProcessCacheAccess = Mock(CrossProcessCacheAccess)
@@ -68,6 +69,36 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
     }
 
+    def "discards cached results when cross-build caches are released"() {
+        given:
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == "result 1"
+
+        and:
+        1 * crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        1 * asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        1 * target.get("key") >> "result 1"
+        0 * target._
+
+        when:
+        crossBuildCacheFactory.releaseRetainedValues()
+        result = cache.get("key")
+
+        then:
+        result == "result 2"
+
+        and:
+        1 * crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        1 * asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        1 * target.get("key") >> "result 2"
+        0 * target._
+    }
+
     def "does not cache result when not long running process"() {
         given:
         def cache = cacheFactory.decorator(100, false).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
@@ -17,10 +17,12 @@
 package org.gradle.api.internal.tasks.execution
 
 import org.gradle.api.execution.TaskExecutionListener
+import org.gradle.api.execution.internal.ExecuteTaskBuildOperationDetails
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository
 import org.gradle.execution.TaskExecutionGraphInternal
 import org.gradle.internal.execution.ExecuteTaskBuildOperationType
 import org.gradle.internal.operations.TestBuildOperationExecutor
@@ -38,8 +40,9 @@ class EventFiringTaskExecuterTest extends Specification {
     def task = Mock(TaskInternal)
     def state = Mock(TaskStateInternal)
     def executionContext = Mock(TaskExecutionContext)
+    def durationRepository = Mock(TaskExecutionDurationRepository)
 
-    def executer = new EventFiringTaskExecuter(buildOperationExecutor, taskExecutionGraph, delegate)
+    def executer = new EventFiringTaskExecuter(buildOperationExecutor, taskExecutionGraph, durationRepository, delegate)
 
     def "notifies task listeners"() {
         when:
@@ -84,4 +87,26 @@ class EventFiringTaskExecuterTest extends Specification {
         e.is(failure)
         buildOperationExecutor.log.mostRecentResult(ExecuteTaskBuildOperationType)
     }
+
+    def "looks up expected duration only when requested from build operation details"() {
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        _ * task.getIdentityPath() >> Path.path(":a")
+        _ * task.getPath() >> ":a"
+        0 * durationRepository._
+
+        when:
+        def details = buildOperationExecutor.operations[0].details as ExecuteTaskBuildOperationDetails
+        def result = details.expectedDuration
+
+        then:
+        _ * task.getPath() >> ":a"
+        1 * durationRepository.getExpectedDuration(":a") >> expectedDuration
+        result == expectedDuration
+
+        where:
+        expectedDuration << [1234L, null]
+    }
 }
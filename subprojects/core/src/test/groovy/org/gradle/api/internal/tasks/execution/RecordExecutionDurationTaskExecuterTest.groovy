@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution
+
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.tasks.TaskExecuter
+import org.gradle.api.internal.tasks.TaskExecutionContext
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionDurationRepository
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class RecordExecutionDurationTaskExecuterTest extends Specification {
+    def target = Mock(TaskExecuter)
+    def task = Stub(TaskInternal) {
+        getPath() >> ":task"
+    }
+    def state = Mock(TaskStateInternal)
+    def context = Mock(TaskExecutionContext)
+    def durationRepository = Mock(TaskExecutionDurationRepository)
+    def executer = new RecordExecutionDurationTaskExecuter(durationRepository, target)
+
+    def "records duration of executed task"() {
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context)
+        _ * state.getOutcome() >> TaskExecutionOutcome.EXECUTED
+        _ * state.getFailure() >> null
+        1 * durationRepository.recordDuration(":task", { it >= 0 })
+    }
+
+    def "does not record duration of failed task"() {
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context)
+        _ * state.getOutcome() >> TaskExecutionOutcome.EXECUTED
+        _ * state.getFailure() >> new RuntimeException()
+        0 * durationRepository._
+    }
+
+    @Unroll
+    def "does not record duration of task with outcome #outcome"() {
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context)
+        _ * state.getOutcome() >> outcome
+        0 * durationRepository._
+
+        where:
+        outcome << [TaskExecutionOutcome.UP_TO_DATE, TaskExecutionOutcome.FROM_CACHE, TaskExecutionOutcome.NO_SOURCE]
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution.statistics
+
+import org.gradle.api.internal.changedetection.state.TaskHistoryStore
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import spock.lang.Specification
+
+class CacheBackedTaskExecutionDurationRepositoryTest extends Specification {
+    def cache = new InMemoryIndexedCache<String, Long>(BaseSerializerFactory.LONG_SERIALIZER)
+    def cacheAccess = Stub(TaskHistoryStore) {
+        createCache("taskDurations", String, _, _, _) >> cache
+    }
+    def repository = new CacheBackedTaskExecutionDurationRepository(cacheAccess)
+
+    def "has no expected duration for task that was never executed"() {
+        expect:
+        repository.getExpectedDuration(":a") == null
+    }
+
+    def "uses first recorded duration as expected duration"() {
+        when:
+        repository.recordDuration(":a", 1000)
+
+        then:
+        repository.getExpectedDuration(":a") == 1000
+        repository.getExpectedDuration(":b") == null
+    }
+
+    def "smooths subsequent durations"() {
+        when:
+        repository.recordDuration(":a", 1000)
+        repository.recordDuration(":a", 5000)
+
+        then:
+        repository.getExpectedDuration(":a") == 2000
+    }
+}
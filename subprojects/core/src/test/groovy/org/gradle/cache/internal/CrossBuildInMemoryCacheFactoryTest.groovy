@@ -147,6 +147,40 @@ class CrossBuildInMemoryCacheFactoryTest extends ConcurrentSpec {
         0 * transformer._
     }
 
+    def "can reuse values from the previous session after releasing retained values while they are still reachable"() {
+        def a = new Object()
+        def b = new Object()
+        def transformer = Mock(Transformer)
+
+        given:
+        def cache1 = factory.newCache()
+        def cache2 = factory.newClassCache()
+        cache1.put("a", a)
+        cache2.put(String, b)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        when:
+        factory.releaseRetainedValues()
+
+        then:
+        cache1.get("a", transformer) == a
+        cache2.get(String, transformer) == b
+        0 * transformer._
+    }
+
+    def "releases registered caches when releasing retained values"() {
+        def cache = Mock(ReleasableInMemoryCache)
+
+        given:
+        factory.register(cache)
+
+        when:
+        factory.releaseRetainedValues()
+
+        then:
+        1 * cache.releaseRetainedValues()
+    }
+
     def "creates a cache whose keys are classes"() {
         def a = new Object()
         def b = new Object()
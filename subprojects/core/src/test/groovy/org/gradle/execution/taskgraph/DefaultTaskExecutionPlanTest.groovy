@@ -633,6 +633,34 @@ class DefaultTaskExecutionPlanTest extends AbstractProjectBuilderSpec {
         failures[0] instanceof BuildCancelledException
     }
 
+    def "selects task once the dependency it was waiting for completes"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        addToGraphAndPopulate([b])
+
+        when:
+        def first = executionPlan.selectNextTask(workerLease, Mock(ResourceLockState))
+
+        then:
+        first.task == a
+        executionPlan.selectNextTask(workerLease, Mock(ResourceLockState)) == null
+        executionPlan.hasWorkRemaining()
+
+        when:
+        executionPlan.taskComplete(first)
+        def second = executionPlan.selectNextTask(workerLease, Mock(ResourceLockState))
+
+        then:
+        second.task == b
+
+        when:
+        executionPlan.taskComplete(second)
+
+        then:
+        !executionPlan.hasWorkRemaining()
+    }
+
     def "stops returning tasks on first task failure when no failure handler provided"() {
         def failures = []
         RuntimeException failure = new RuntimeException("failure")
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.BuildResult
+import org.gradle.StartParameter
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.BuildOperationListener
+import org.gradle.internal.operations.BuildOperationListenerManager
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildOperationTraceTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def buildOperationListenerManager = Mock(BuildOperationListenerManager)
+    def listenerManager = Mock(ListenerManager)
+    BuildOperationListener listener
+
+    def basePath = tmpDir.file("trace/operations").absolutePath
+
+    def "writes log without trees when trees are disabled"() {
+        given:
+        def trace = createTrace((BuildOperationTrace.TREE_SYSPROP): "false")
+        runOperations()
+
+        when:
+        trace.stop()
+
+        then:
+        tmpDir.file("trace/operations-log.txt").file
+        !tmpDir.file("trace/operations-tree.json").exists()
+        !tmpDir.file("trace/operations-tree.txt").exists()
+
+        and:
+        def tree = BuildOperationTrace.read(basePath)
+        tree.roots*.displayName == ["root"]
+        tree.roots[0].children*.displayName == ["child"]
+    }
+
+    def "writes log and trees by default"() {
+        given:
+        def trace = createTrace([:])
+        runOperations()
+
+        when:
+        trace.stop()
+
+        then:
+        tmpDir.file("trace/operations-log.txt").file
+        tmpDir.file("trace/operations-tree.json").file
+        tmpDir.file("trace/operations-tree.txt").text.contains("root")
+    }
+
+    def "flushes log when a root operation finishes"() {
+        given:
+        def trace = createTrace((BuildOperationTrace.TREE_SYSPROP): "false")
+        listener.buildFinished(Stub(BuildResult))
+
+        when:
+        def root = operation(1, null, "root")
+        listener.started(root, new OperationStartEvent(0))
+        def child = operation(2, 1, "child")
+        listener.started(child, new OperationStartEvent(1))
+        listener.finished(child, new OperationFinishEvent(1, 2, null, null))
+        listener.finished(root, new OperationFinishEvent(0, 3, null, null))
+
+        then:
+        tmpDir.file("trace/operations-log.txt").readLines().size() == 4
+
+        cleanup:
+        trace.stop()
+    }
+
+    private BuildOperationTrace createTrace(Map<String, String> properties) {
+        def startParameter = new StartParameter()
+        startParameter.systemPropertiesArgs = [(BuildOperationTrace.SYSPROP): basePath] + properties
+        buildOperationListenerManager.addListener(_) >> { BuildOperationListener l -> listener = l }
+        return new BuildOperationTrace(startParameter, buildOperationListenerManager, listenerManager)
+    }
+
+    private void runOperations() {
+        listener.buildFinished(Stub(BuildResult))
+        def root = operation(1, null, "root")
+        def child = operation(2, 1, "child")
+        listener.started(root, new OperationStartEvent(0))
+        listener.started(child, new OperationStartEvent(1))
+        listener.finished(child, new OperationFinishEvent(1, 2, null, null))
+        listener.finished(root, new OperationFinishEvent(0, 3, null, null))
+    }
+
+    private static BuildOperationDescriptor operation(long id, Long parentId, String displayName) {
+        BuildOperationDescriptor.displayName(displayName).build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+}
@@ -17,14 +17,14 @@ package org.gradle.api.internal.artifacts.ivyservice;
 
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.VersionStrategy;
-import org.gradle.internal.classpath.CachedJarFileStore;
+import org.gradle.internal.classpath.ContentAddressedFileStore;
 import org.gradle.util.VersionNumber;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
-public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, CachedJarFileStore {
+public class DefaultArtifactCacheMetadata implements ArtifactCacheMetadata, ContentAddressedFileStore {
 
     public static final VersionNumber CACHE_LAYOUT_VERSION = CacheLayout.META_DATA.getVersion();
     private final File cacheDir;
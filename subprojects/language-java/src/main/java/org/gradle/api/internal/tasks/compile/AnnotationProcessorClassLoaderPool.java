@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+
+import java.io.File;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Keeps the class loaders of annotation processor paths between compilations in the same process, so that the processor classes do not
+ * have to be loaded and warmed up again by every compilation.
+ *
+ * <p>Pooling is opt-in via the {@value #REUSE_CLASS_LOADERS_PROPERTY} system property, as processors may keep static state between
+ * compilations, which can also hold on to the compiler of a previous compilation. A class loader is used by a single compilation at a
+ * time, and only processor paths made up of jars are pooled. Idle class loaders are kept across builds and closed when there are too many
+ * of them, when the system is low on memory, or when one of their jars has changed, see {@link CompilerResourcePool}.</p>
+ */
+public class AnnotationProcessorClassLoaderPool implements MemoryHolder, Stoppable {
+    public static final String REUSE_CLASS_LOADERS_PROPERTY = "org.gradle.internal.compile.reuse-processor-classloaders";
+    private static final int MAX_IDLE_CLASS_LOADERS = 8;
+
+    private final MemoryManager memoryManager;
+    private final boolean enabled;
+    private final CompilerResourcePool<ImmutableList<File>, PooledClassLoader> idle;
+
+    public AnnotationProcessorClassLoaderPool(FileHasher fileHasher, MemoryManager memoryManager) {
+        this(fileHasher, memoryManager, isEnabled() && CompilerResourcePool.canKeepJarsOpen());
+    }
+
+    AnnotationProcessorClassLoaderPool(FileHasher fileHasher, MemoryManager memoryManager, boolean enabled) {
+        this.memoryManager = memoryManager;
+        this.enabled = enabled;
+        this.idle = new CompilerResourcePool<ImmutableList<File>, PooledClassLoader>("annotation processor class loader", fileHasher, MAX_IDLE_CLASS_LOADERS);
+        memoryManager.addMemoryHolder(this);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_CLASS_LOADERS_PROPERTY);
+    }
+
+    /**
+     * Creates a class loader for the given processor path that is not pooled. It must be closed using {@link PooledClassLoader#close()}.
+     */
+    static PooledClassLoader unpooled(List<File> processorPath) {
+        return new PooledClassLoader(ImmutableList.copyOf(processorPath), false);
+    }
+
+    /**
+     * Returns an idle class loader for the given processor path, or creates a new one.
+     * The class loader must be handed back using {@link #release(PooledClassLoader)}.
+     */
+    PooledClassLoader acquire(List<File> processorPath) {
+        if (!enabled) {
+            return unpooled(processorPath);
+        }
+        ImmutableList<File> path = ImmutableList.copyOf(processorPath);
+        PooledClassLoader classLoader = idle.take(path);
+        if (classLoader != null) {
+            return classLoader;
+        }
+        // Class directories cannot be checked for changes cheaply, so only class loaders for jars are kept
+        for (File file : path) {
+            if (!file.isFile()) {
+                return unpooled(path);
+            }
+        }
+        classLoader = new PooledClassLoader(path, true);
+        for (File jar : path) {
+            idle.recordJar(classLoader, jar);
+        }
+        return classLoader;
+    }
+
+    /**
+     * Hands back a class loader after a compilation, so it can be reused.
+     */
+    void release(PooledClassLoader classLoader) {
+        if (!classLoader.poolable || !idle.isUpToDate(classLoader)) {
+            classLoader.close();
+            return;
+        }
+        idle.put(classLoader);
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        return idle.closeIdle(memoryAmountBytes);
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        idle.stop();
+    }
+
+    static class PooledClassLoader extends CompilerResourcePool.Resource<ImmutableList<File>> {
+        private final URLClassLoader classLoader;
+        private final boolean poolable;
+
+        private PooledClassLoader(ImmutableList<File> path, boolean poolable) {
+            super(path);
+            this.classLoader = new URLClassLoader(DefaultClassPath.of(path).getAsURLArray());
+            this.poolable = poolable;
+        }
+
+        ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        @Override
+        void close() {
+            CompositeStoppable.stoppable(classLoader).stop();
+        }
+    }
+}
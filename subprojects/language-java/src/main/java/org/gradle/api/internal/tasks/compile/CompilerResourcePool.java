@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.os.OperatingSystem;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps idle compiler resources that hold jars open, such as file managers and class loaders, so that they can be reused by later compilations.
+ *
+ * <p>Each resource records the content hashes of the jars it has read, and is only handed out again while none of these jars has changed.
+ * When there are more idle resources than the given maximum, the least recently used ones are closed. Holding a jar open prevents it from
+ * being deleted on Windows, so resources are not kept there, see {@link #canKeepJarsOpen()}.</p>
+ */
+class CompilerResourcePool<K, T extends CompilerResourcePool.Resource<K>> implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(CompilerResourcePool.class);
+
+    private final String displayName;
+    private final FileHasher fileHasher;
+    private final int maxIdle;
+    private final LinkedList<T> idle = new LinkedList<T>();
+    private boolean stopped;
+
+    CompilerResourcePool(String displayName, FileHasher fileHasher, int maxIdle) {
+        this.displayName = displayName;
+        this.fileHasher = fileHasher;
+        this.maxIdle = maxIdle;
+    }
+
+    static boolean canKeepJarsOpen() {
+        return !OperatingSystem.current().isWindows();
+    }
+
+    /**
+     * Removes and returns the most recently used idle resource with the given key whose jars have not changed, or returns null when there is
+     * no such resource. Idle resources with the given key whose jars have changed are closed.
+     */
+    @Nullable
+    T take(K key) {
+        while (true) {
+            T candidate = null;
+            synchronized (idle) {
+                Iterator<T> iterator = idle.iterator();
+                while (iterator.hasNext()) {
+                    T resource = iterator.next();
+                    if (resource.key.equals(key)) {
+                        iterator.remove();
+                        candidate = resource;
+                        break;
+                    }
+                }
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (isUpToDate(candidate)) {
+                return candidate;
+            }
+            candidate.close();
+        }
+    }
+
+    /**
+     * Makes the given resource available for reuse, closing the least recently used idle resource if there are too many.
+     * The resource is closed instead when the pool has been stopped.
+     */
+    void put(T resource) {
+        T evicted = null;
+        synchronized (idle) {
+            if (stopped) {
+                evicted = resource;
+            } else {
+                idle.addFirst(resource);
+                if (idle.size() > maxIdle) {
+                    evicted = idle.removeLast();
+                }
+            }
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    void recordJar(T resource, File jar) {
+        resource.jarHashes.put(jar, fileHasher.hash(jar));
+    }
+
+    boolean isUpToDate(T resource) {
+        for (Map.Entry<File, HashCode> entry : resource.jarHashes.entrySet()) {
+            File jar = entry.getKey();
+            if (!jar.isFile() || !entry.getValue().equals(fileHasher.hash(jar))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes idle resources, least recently used first, until at least the given amount of memory has been released. The memory held by a
+     * resource is estimated from the size of its jars.
+     *
+     * @return the estimated amount of memory released
+     */
+    long closeIdle(long memoryAmountBytes) {
+        List<T> toClose = new ArrayList<T>();
+        long releasedBytes = 0;
+        synchronized (idle) {
+            while (releasedBytes < memoryAmountBytes && !idle.isEmpty()) {
+                T resource = idle.removeLast();
+                toClose.add(resource);
+                releasedBytes += resource.getJarSize();
+            }
+        }
+        close(toClose);
+        return releasedBytes;
+    }
+
+    @Override
+    public void stop() {
+        List<T> toClose;
+        synchronized (idle) {
+            stopped = true;
+            toClose = new ArrayList<T>(idle);
+            idle.clear();
+        }
+        close(toClose);
+    }
+
+    private void close(List<T> resources) {
+        if (!resources.isEmpty()) {
+            LOGGER.debug("Closing {} idle {}(s).", resources.size(), displayName);
+            for (T resource : resources) {
+                resource.close();
+            }
+        }
+    }
+
+    abstract static class Resource<K> {
+        private final K key;
+        private final Map<File, HashCode> jarHashes = new HashMap<File, HashCode>();
+
+        Resource(K key) {
+            this.key = key;
+        }
+
+        int getJarCount() {
+            return jarHashes.size();
+        }
+
+        long getJarSize() {
+            long size = 0;
+            for (File jar : jarHashes.keySet()) {
+                size += jar.length();
+            }
+            return size;
+        }
+
+        abstract void close();
+    }
+}
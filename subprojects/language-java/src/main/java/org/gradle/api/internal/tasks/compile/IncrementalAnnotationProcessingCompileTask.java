@@ -22,13 +22,11 @@ import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDecla
 import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.internal.tasks.compile.processing.IsolatingProcessor;
 import org.gradle.api.internal.tasks.compile.processing.NonIncrementalProcessor;
-import org.gradle.internal.classpath.DefaultClassPath;
-import org.gradle.internal.concurrent.CompositeStoppable;
 
+import javax.annotation.Nullable;
 import javax.annotation.processing.Processor;
 import javax.tools.JavaCompiler;
 import java.io.File;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -45,15 +43,17 @@ class IncrementalAnnotationProcessingCompileTask implements JavaCompiler.Compila
     private final Set<AnnotationProcessorDeclaration> processorDeclarations;
     private final List<File> annotationProcessorPath;
     private final AnnotationProcessingResult result;
+    private final AnnotationProcessorClassLoaderPool classLoaderPool;
 
-    private URLClassLoader processorClassloader;
+    private AnnotationProcessorClassLoaderPool.PooledClassLoader processorClassloader;
     private boolean called;
 
-    IncrementalAnnotationProcessingCompileTask(JavaCompiler.CompilationTask delegate, Set<AnnotationProcessorDeclaration> processorDeclarations, List<File> annotationProcessorPath, AnnotationProcessingResult result) {
+    IncrementalAnnotationProcessingCompileTask(JavaCompiler.CompilationTask delegate, Set<AnnotationProcessorDeclaration> processorDeclarations, List<File> annotationProcessorPath, AnnotationProcessingResult result, @Nullable AnnotationProcessorClassLoaderPool classLoaderPool) {
         this.delegate = delegate;
         this.processorDeclarations = processorDeclarations;
         this.annotationProcessorPath = annotationProcessorPath;
         this.result = result;
+        this.classLoaderPool = classLoaderPool;
     }
 
     @Override
@@ -81,11 +81,11 @@ class IncrementalAnnotationProcessingCompileTask implements JavaCompiler.Compila
     }
 
     private void setupProcessors() {
-        processorClassloader = new URLClassLoader(DefaultClassPath.of(annotationProcessorPath).getAsURLArray());
+        processorClassloader = classLoaderPool != null ? classLoaderPool.acquire(annotationProcessorPath) : AnnotationProcessorClassLoaderPool.unpooled(annotationProcessorPath);
         List<Processor> processors = new ArrayList<Processor>(processorDeclarations.size());
         for (AnnotationProcessorDeclaration declaredProcessor : processorDeclarations) {
             try {
-                Class<?> processorClass = processorClassloader.loadClass(declaredProcessor.getClassName());
+                Class<?> processorClass = processorClassloader.getClassLoader().loadClass(declaredProcessor.getClassName());
                 Processor processor = (Processor) processorClass.newInstance();
                 IncrementalAnnotationProcessorType defaultType = declaredProcessor.getType();
                 IncrementalAnnotationProcessorType type = getProcessorType(processor, defaultType);
@@ -121,6 +121,13 @@ class IncrementalAnnotationProcessingCompileTask implements JavaCompiler.Compila
     }
 
     private void cleanupProcessors() {
-        CompositeStoppable.stoppable(processorClassloader).stop();
+        if (processorClassloader != null) {
+            if (classLoaderPool != null) {
+                classLoaderPool.release(processorClassloader);
+            } else {
+                processorClassloader.close();
+            }
+            processorClassloader = null;
+        }
     }
 }
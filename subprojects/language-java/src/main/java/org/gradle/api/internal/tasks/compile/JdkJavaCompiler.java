@@ -20,10 +20,12 @@ import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDecla
 import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.Factory;
+import org.gradle.internal.IoActions;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -36,9 +38,18 @@ import java.util.Set;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    // Not serialized, so file managers and processor class loaders are not pooled when compiling in a worker daemon
+    private final transient StandardFileManagerPool fileManagerPool;
+    private final transient AnnotationProcessorClassLoaderPool processorClassLoaderPool;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, null, null);
+    }
+
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, @Nullable StandardFileManagerPool fileManagerPool, @Nullable AnnotationProcessorClassLoaderPool processorClassLoaderPool) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.fileManagerPool = fileManagerPool;
+        this.processorClassLoaderPool = processorClassLoaderPool;
     }
 
     @Override
@@ -46,19 +57,38 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         LOGGER.info("Compiling with JDK Java compiler API.");
 
         JdkJavaCompilerResult result = new JdkJavaCompilerResult();
-        JavaCompiler.CompilationTask task = createCompileTask(spec, result);
-        boolean success = task.call();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        boolean success;
+        if (fileManagerPool == null) {
+            StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, charset);
+            try {
+                success = createCompileTask(spec, options, compiler, fileManager, result).call();
+            } finally {
+                IoActions.closeQuietly(fileManager);
+            }
+        } else {
+            StandardFileManagerPool.PooledFileManager fileManager = fileManagerPool.acquire(compiler, charset, options);
+            success = false;
+            try {
+                success = createCompileTask(spec, options, compiler, fileManager.getFileManager(), result).call();
+            } finally {
+                if (success) {
+                    fileManagerPool.release(fileManager, options);
+                } else {
+                    fileManagerPool.discard(fileManager);
+                }
+            }
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
         return result;
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JdkJavaCompilerResult result) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager standardFileManager, JdkJavaCompilerResult result) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSourceFiles());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
@@ -68,7 +98,7 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
 
         Set<AnnotationProcessorDeclaration> annotationProcessors = spec.getEffectiveAnnotationProcessors();
         if (annotationProcessors != null) {
-            task = new IncrementalAnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult());
+            task = new IncrementalAnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult(), processorClassLoaderPool);
         }
         return task;
     }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.IoActions;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps idle {@link StandardJavaFileManager} instances between the compilations of a build session, so that the jars on the compile
+ * classpath are not opened and indexed again by every compilation.
+ *
+ * <p>javac only sets the locations of a file manager that are named in the options of a compilation, and keeps the others from previous
+ * compilations. A file manager is therefore only reused for a compilation that sets the same locations to the same values, apart from
+ * the classpath, source path and output directory, which Gradle always sets. See {@link CompilerResourcePool} for when idle file managers
+ * are closed. All idle file managers are closed at the end of the build session.</p>
+ */
+public class StandardFileManagerPool implements Stoppable {
+    private static final int MAX_IDLE_FILE_MANAGERS = 8;
+    private static final int MAX_JARS_PER_FILE_MANAGER = 5000;
+
+    // Options that Gradle always passes, so that javac always resets the location. Only whether they are present matters.
+    private static final Set<String> ALWAYS_SET_LOCATION_OPTIONS = ImmutableSet.of(
+        "-d", "-classpath", "-cp", "--class-path", "-sourcepath", "--source-path"
+    );
+    // Options that set a location only when they are present, so that their values must match.
+    private static final Set<String> OPTIONAL_LOCATION_OPTIONS = ImmutableSet.of(
+        "-bootclasspath", "--boot-class-path", "-extdirs", "-endorseddirs", "--release", "--system",
+        "-s", "-h", "-processorpath", "--processor-path", "--processor-module-path",
+        "--module-path", "-p", "--upgrade-module-path", "--module-source-path"
+    );
+    private static final Set<String> PATH_OPTIONS = ImmutableSet.of(
+        "-classpath", "-cp", "--class-path", "-bootclasspath", "--boot-class-path", "-processorpath", "--processor-path",
+        "--processor-module-path", "--module-path", "-p", "--upgrade-module-path"
+    );
+
+    private final boolean enabled;
+    private final CompilerResourcePool<Key, PooledFileManager> idle;
+
+    public StandardFileManagerPool(FileHasher fileHasher) {
+        this(fileHasher, CompilerResourcePool.canKeepJarsOpen());
+    }
+
+    StandardFileManagerPool(FileHasher fileHasher, boolean enabled) {
+        this.enabled = enabled;
+        this.idle = new CompilerResourcePool<Key, PooledFileManager>("file manager", fileHasher, MAX_IDLE_FILE_MANAGERS);
+    }
+
+    /**
+     * Returns an idle file manager that is still valid for the given compiler, encoding and compiler options, or creates a new one.
+     * The file manager must be handed back using {@link #release(PooledFileManager, List)} or {@link #discard(PooledFileManager)}.
+     */
+    PooledFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options) {
+        Key key = new Key(compiler.getClass(), charset, locationOptions(options));
+        if (enabled) {
+            PooledFileManager fileManager = idle.take(key);
+            if (fileManager != null) {
+                return fileManager;
+            }
+        }
+        return new PooledFileManager(key, compiler.getStandardFileManager(null, null, charset));
+    }
+
+    /**
+     * Hands back a file manager after a successful compilation with the given compiler options, so it can be reused.
+     */
+    void release(PooledFileManager fileManager, List<String> options) {
+        if (!enabled) {
+            fileManager.close();
+            return;
+        }
+        for (File jar : jarsIn(options)) {
+            idle.recordJar(fileManager, jar);
+        }
+        if (fileManager.getJarCount() > MAX_JARS_PER_FILE_MANAGER) {
+            fileManager.close();
+            return;
+        }
+        idle.put(fileManager);
+    }
+
+    /**
+     * Closes a file manager that must not be reused, for example after a failed compilation.
+     */
+    void discard(PooledFileManager fileManager) {
+        fileManager.close();
+    }
+
+    @Override
+    public void stop() {
+        idle.stop();
+    }
+
+    private static List<String> locationOptions(List<String> options) {
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        Iterator<String> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (ALWAYS_SET_LOCATION_OPTIONS.contains(option)) {
+                result.add(option);
+                skipValue(iterator);
+            } else if (OPTIONAL_LOCATION_OPTIONS.contains(option)) {
+                result.add(option);
+                result.add(iterator.hasNext() ? iterator.next() : "");
+            } else if (option.startsWith("-Xbootclasspath") || option.startsWith("--release=") || option.startsWith("--system=")
+                || option.startsWith("--module-path=") || option.startsWith("--upgrade-module-path=") || option.startsWith("--processor-module-path=")
+                || option.startsWith("--module-source-path=")) {
+                result.add(option);
+            }
+        }
+        return result.build();
+    }
+
+    private static void skipValue(Iterator<String> iterator) {
+        if (iterator.hasNext()) {
+            iterator.next();
+        }
+    }
+
+    private static List<File> jarsIn(List<String> options) {
+        List<File> jars = new ArrayList<File>();
+        Iterator<String> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (PATH_OPTIONS.contains(option) && iterator.hasNext()) {
+                for (String path : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(iterator.next())) {
+                    File file = new File(path);
+                    if (file.isFile()) {
+                        jars.add(file);
+                    }
+                }
+            }
+        }
+        return jars;
+    }
+
+    static class PooledFileManager extends CompilerResourcePool.Resource<Key> {
+        private final StandardJavaFileManager fileManager;
+
+        private PooledFileManager(Key key, StandardJavaFileManager fileManager) {
+            super(key);
+            this.fileManager = fileManager;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        @Override
+        void close() {
+            IoActions.closeQuietly(fileManager);
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final List<String> locationOptions;
+
+        Key(Class<?> compilerType, @Nullable Charset charset, List<String> locationOptions) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.locationOptions = locationOptions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return compilerType.equals(other.compilerType) && Objects.equal(charset, other.charset) && locationOptions.equals(other.locationOptions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(compilerType, charset, locationOptions);
+        }
+    }
+}
@@ -16,23 +16,31 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
+import org.objectweb.asm.ClassReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
 
 class DefaultJarSnapshotter {
     private static final Logger LOGGER = Logging.getLogger(DefaultJarSnapshotter.class);
+    // Used for classes that cannot be referenced from outside the jar, such as private nested classes and local classes
+    private static final HashCode NO_API_HASH = Hashing.md5().hashBytes(new byte[0]);
 
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
@@ -61,6 +69,7 @@ class DefaultJarSnapshotter {
     private class JarVisitor implements FileVisitor {
         private final ClassDependentsAccumulator accumulator;
         private final Map<String, HashCode> hashes;
+        private final ApiClassExtractor apiClassExtractor = new ApiClassExtractor(Collections.<String>emptySet());
 
         public JarVisitor(ClassDependentsAccumulator accumulator, Map<String, HashCode> hashes) {
             this.accumulator = accumulator;
@@ -75,10 +84,12 @@ class DefaultJarSnapshotter {
                 return;
             }
 
-            HashCode classFileHash;
+            byte[] classBytes;
             InputStream inputStream = fileDetails.open();
             try {
-                classFileHash = hasher.hash(inputStream);
+                classBytes = ByteStreams.toByteArray(inputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             } finally {
                 try {
                     inputStream.close();
@@ -86,11 +97,12 @@ class DefaultJarSnapshotter {
                     throw new UncheckedIOException(e);
                 }
             }
+            HashCode classFileHash = hasher.hash(new ByteArrayInputStream(classBytes));
 
             try {
                 ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
                 accumulator.addClass(fileDetails.getFile(), analysis);
-                hashes.put(analysis.getClassName(), classFileHash);
+                hashes.put(analysis.getClassName(), apiHash(fileDetails, classBytes, classFileHash));
             } catch (Exception e) {
                 accumulator.fullRebuildNeeded("class file " + fileDetails.getName() + " could not be analyzed. See the debug log for more details");
                 if (LOGGER.isDebugEnabled()) {
@@ -98,5 +110,23 @@ class DefaultJarSnapshotter {
                 }
             }
         }
+
+        /**
+         * Hashes the API of the class, so that changes to method bodies or private members of a class in the jar do not cause its dependents to be recompiled.
+         * Constant values are part of the API, as they are inlined into dependents.
+         */
+        private HashCode apiHash(FileVisitDetails fileDetails, byte[] classBytes, HashCode classFileHash) {
+            try {
+                ClassReader reader = new ClassReader(classBytes);
+                if (!apiClassExtractor.shouldExtractApiClassFrom(reader)) {
+                    return NO_API_HASH;
+                }
+                byte[] apiClass = apiClassExtractor.extractApiClassFrom(reader);
+                return apiClass == null ? NO_API_HASH : Hashing.md5().hashBytes(apiClass);
+            } catch (Exception e) {
+                LOGGER.debug("Could not extract API of class file " + fileDetails.getName() + ". Falling back to full class file hash.", e);
+                return classFileHash;
+            }
+        }
     }
 }
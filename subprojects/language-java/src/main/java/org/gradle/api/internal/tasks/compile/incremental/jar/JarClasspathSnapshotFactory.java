@@ -16,41 +16,94 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, BuildOperationExecutor buildOperationExecutor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        final List<SnapshotJarOperation> operations = Lists.newArrayList();
+        for (JarArchive jar : jarArchives) {
+            if (jar.file.exists()) {
+                operations.add(new SnapshotJarOperation(jar));
+            }
+        }
+        snapshotJars(operations);
+
         LinkedHashMap<File, JarSnapshot> jarSnapshots = Maps.newLinkedHashMap();
         LinkedHashMap<File, HashCode> jarHashes = Maps.newLinkedHashMap();
         Set<String> allClasses = Sets.newHashSet();
         Set<String> duplicateClasses = Sets.newHashSet();
 
-        for (JarArchive jar : jarArchives) {
-            if (jar.file.exists()) {
-                JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
-                jarSnapshots.put(jar.file, snapshot);
-                jarHashes.put(jar.file, snapshot.getHash());
-                for (String c : snapshot.getClasses()) {
-                    if (!allClasses.add(c)) {
-                        duplicateClasses.add(c);
-                    }
+        for (SnapshotJarOperation operation : operations) {
+            JarSnapshot snapshot = operation.snapshot;
+            jarSnapshots.put(operation.jar.file, snapshot);
+            jarHashes.put(operation.jar.file, snapshot.getHash());
+            for (String c : snapshot.getClasses()) {
+                if (!allClasses.add(c)) {
+                    duplicateClasses.add(c);
                 }
             }
         }
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private void snapshotJars(final List<SnapshotJarOperation> operations) {
+        // Only snapshot in parallel if there is more than 1 jar
+        if (operations.size() <= 1) {
+            for (SnapshotJarOperation operation : operations) {
+                operation.run(null);
+            }
+            return;
+        }
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<SnapshotJarOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<SnapshotJarOperation> buildOperationQueue) {
+                for (SnapshotJarOperation operation : operations) {
+                    buildOperationQueue.add(operation);
+                }
+            }
+        });
+    }
+
+    private class SnapshotJarOperation implements RunnableBuildOperation {
+        private final JarArchive jar;
+        private JarSnapshot snapshot;
+
+        SnapshotJarOperation(JarArchive jar) {
+            this.jar = jar;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            snapshot = jarSnapshotter.createSnapshot(jar);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Snapshot " + jar.file.getName() + " for incremental compilation");
+        }
+    }
 }
@@ -29,7 +29,7 @@ public class JarSnapshotData {
 
     /**
      * @param hash of this jar
-     * @param hashes hashes of all classes from the jar
+     * @param hashes hashes of the API of all classes from the jar
      * @param data of classes analysis in this jar
      */
     public JarSnapshotData(HashCode hash, Map<String, HashCode> hashes, ClassSetAnalysisData data) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnnotationProcessorClassLoaderPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.md5().hashBytes(file.bytes) }
+    }
+    def memoryManager = Mock(MemoryManager)
+    AnnotationProcessorClassLoaderPool pool
+    def processorJar = tmpDir.file("processor.jar").createFile()
+
+    def setup() {
+        pool = createPool(true)
+    }
+
+    def "reuses class loader released after a compilation"() {
+        when:
+        def first = pool.acquire([processorJar])
+        pool.release(first)
+
+        then:
+        pool.acquire([processorJar]).is(first)
+    }
+
+    def "does not share a class loader between concurrent compilations"() {
+        when:
+        def first = pool.acquire([processorJar])
+        def second = pool.acquire([processorJar])
+
+        then:
+        !second.is(first)
+    }
+
+    def "does not reuse class loader for a different processor path"() {
+        def otherJar = tmpDir.file("other.jar").createFile()
+
+        when:
+        def first = pool.acquire([processorJar])
+        pool.release(first)
+
+        then:
+        !pool.acquire([processorJar, otherJar]).is(first)
+    }
+
+    def "does not reuse class loader when the content of a jar on the processor path has changed"() {
+        when:
+        def first = pool.acquire([processorJar])
+        pool.release(first)
+        processorJar << "changed"
+
+        then:
+        !pool.acquire([processorJar]).is(first)
+    }
+
+    def "does not reuse class loader for processor path containing a directory"() {
+        def classesDir = tmpDir.createDir("classes")
+
+        when:
+        def first = pool.acquire([processorJar, classesDir])
+        pool.release(first)
+
+        then:
+        !pool.acquire([processorJar, classesDir]).is(first)
+    }
+
+    def "does not reuse class loaders when disabled"() {
+        def pool = createPool(false)
+
+        when:
+        def first = pool.acquire([processorJar])
+        pool.release(first)
+
+        then:
+        !pool.acquire([processorJar]).is(first)
+    }
+
+    def "closes least recently used idle class loader when there are too many"() {
+        def jars = (0..8).collect { tmpDir.file("processor-${it}.jar").createFile() }
+
+        when:
+        def classLoaders = jars.collect { pool.acquire([it]) }
+        classLoaders.each { pool.release(it) }
+
+        then:
+        !pool.acquire([jars[0]]).is(classLoaders[0])
+        pool.acquire([jars[1]]).is(classLoaders[1])
+        pool.acquire([jars[8]]).is(classLoaders[8])
+    }
+
+    def "closes idle class loaders to release memory"() {
+        when:
+        def first = pool.acquire([processorJar << "content"])
+        pool.release(first)
+        def released = pool.attemptToRelease(1)
+
+        then:
+        released == processorJar.length()
+        !pool.acquire([processorJar]).is(first)
+    }
+
+    def "closes class loaders released after the pool has stopped"() {
+        def first = pool.acquire([processorJar])
+
+        when:
+        pool.stop()
+        pool.release(first)
+
+        then:
+        1 * memoryManager.removeMemoryHolder(pool)
+        !pool.acquire([processorJar]).is(first)
+    }
+
+    private AnnotationProcessorClassLoaderPool createPool(boolean enabled) {
+        return new AnnotationProcessorClassLoaderPool(fileHasher, memoryManager, enabled)
+    }
+}
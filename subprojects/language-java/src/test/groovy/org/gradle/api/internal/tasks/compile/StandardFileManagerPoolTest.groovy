@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import java.nio.charset.Charset
+
+class StandardFileManagerPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.md5().hashBytes(file.bytes) }
+    }
+    def pool = new StandardFileManagerPool(fileHasher, true)
+    def classes = tmpDir.file("classes").createDir()
+
+    def "reuses file manager released after a compilation"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar").createFile()
+
+        when:
+        def first = pool.acquire(compiler, null, options(jar))
+        pool.release(first, options(jar))
+        def second = pool.acquire(compiler, null, options(tmpDir.file("other.jar").createFile()))
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        0 * fileManager.close()
+        second.is(first)
+        second.fileManager.is(fileManager)
+    }
+
+    def "does not reuse file manager for a different encoding"() {
+        def charset = Charset.forName("UTF-16")
+        def defaultFileManager = Mock(StandardJavaFileManager)
+        def utf16FileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, options()), options())
+        def fileManager = pool.acquire(compiler, charset, options())
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> defaultFileManager
+        1 * compiler.getStandardFileManager(null, null, charset) >> utf16FileManager
+        fileManager.fileManager.is(utf16FileManager)
+    }
+
+    def "does not reuse file manager when option #option is #change"() {
+        def firstFileManager = Mock(StandardJavaFileManager)
+        def secondFileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [firstFileManager, secondFileManager]
+
+        when:
+        pool.release(pool.acquire(compiler, null, options() + before), options() + before)
+        def fileManager = pool.acquire(compiler, null, options() + after)
+
+        then:
+        fileManager.fileManager.is(secondFileManager)
+
+        where:
+        option           | change       | before                                 | after
+        "--release"      | "changed"    | ["--release", "8"]                     | ["--release", "9"]
+        "--release"      | "removed"    | ["--release", "8"]                     | []
+        "-bootclasspath" | "added"      | []                                     | ["-bootclasspath", "rt.jar"]
+        "-s"             | "changed"    | ["-s", "generated-1"]                  | ["-s", "generated-2"]
+        "-processorpath" | "removed"    | ["-processorpath", "processor.jar"]    | []
+        "--system"       | "added"      | []                                     | ["--system", "jdk"]
+    }
+
+    def "closes and replaces file manager when the content of a jar it has read has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar").createFile()
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        pool.release(pool.acquire(compiler, null, options(jar)), options(jar))
+
+        when:
+        jar << "changed"
+        def second = pool.acquire(compiler, null, options(jar))
+
+        then:
+        1 * fileManager.close()
+        second.fileManager.is(newFileManager)
+    }
+
+    def "closes and replaces file manager when a jar on the boot classpath has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("rt.jar").createFile()
+        def bootClasspath = options() + ["-bootclasspath", jar.absolutePath]
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        pool.release(pool.acquire(compiler, null, bootClasspath), bootClasspath)
+
+        when:
+        jar << "changed"
+        def second = pool.acquire(compiler, null, bootClasspath)
+
+        then:
+        1 * fileManager.close()
+        second.fileManager.is(newFileManager)
+    }
+
+    def "closes file manager after a failed compilation"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        pool.discard(pool.acquire(compiler, null, options()))
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes released file managers when disabled"() {
+        def pool = new StandardFileManagerPool(fileHasher, false)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        pool.release(pool.acquire(compiler, null, options()), options())
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def lateFileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, lateFileManager]
+        pool.release(pool.acquire(compiler, null, options()), options())
+        def late = pool.acquire(compiler, null, options() + ["--release", "8"])
+
+        when:
+        pool.stop()
+        pool.release(late, options() + ["--release", "8"])
+
+        then:
+        1 * fileManager.close()
+        1 * lateFileManager.close()
+    }
+
+    private List<String> options(File... classpath) {
+        ["-d", classes.absolutePath, "-classpath", classpath*.absolutePath.join(File.pathSeparator)]
+    }
+}
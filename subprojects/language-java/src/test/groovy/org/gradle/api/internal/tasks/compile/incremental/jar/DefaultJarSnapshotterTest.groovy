@@ -30,6 +30,8 @@ import org.gradle.internal.hash.StreamHasher
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -84,4 +86,45 @@ class DefaultJarSnapshotterTest extends Specification {
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
         snapshot.analysis
     }
+
+    def "uses the API of classes to detect changes"() {
+        def snapshotter = new DefaultJarSnapshotter(Stub(StreamHasher), Stub(ClassDependenciesAnalyzer) {
+            getClassAnalysis(_, _) >> Stub(ClassAnalysis) {
+                getClassName() >> "Foo"
+            }
+        })
+
+        when:
+        def original = snapshotter.createSnapshot(HashCode.fromInt(1), jarWith("original", classBytes(1, Opcodes.ACC_PUBLIC, false)))
+        def bodyChanged = snapshotter.createSnapshot(HashCode.fromInt(2), jarWith("bodyChanged", classBytes(2, Opcodes.ACC_PUBLIC, false)))
+        def privateMemberAdded = snapshotter.createSnapshot(HashCode.fromInt(3), jarWith("privateMemberAdded", classBytes(1, Opcodes.ACC_PUBLIC, true)))
+        def apiChanged = snapshotter.createSnapshot(HashCode.fromInt(4), jarWith("apiChanged", classBytes(1, Opcodes.ACC_PROTECTED, false)))
+
+        then:
+        bodyChanged.hashes["Foo"] == original.hashes["Foo"]
+        privateMemberAdded.hashes["Foo"] == original.hashes["Foo"]
+        apiChanged.hashes["Foo"] != original.hashes["Foo"]
+    }
+
+    private JarArchive jarWith(String name, byte[] fooClass) {
+        def dir = temp.createDir(name)
+        dir.file("Foo.class").bytes = fooClass
+        return new JarArchive(dir, new FileTreeAdapter(new DefaultDirectoryFileTreeFactory().create(dir)))
+    }
+
+    private static byte[] classBytes(int returnValue, int methodAccess, boolean privateField) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, "Foo", null, "java/lang/Object", null)
+        if (privateField) {
+            writer.visitField(Opcodes.ACC_PRIVATE, "field", "I", null, null).visitEnd()
+        }
+        def method = writer.visitMethod(methodAccess, "value", "()I", null, null)
+        method.visitCode()
+        method.visitLdcInsn(returnValue)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
 }
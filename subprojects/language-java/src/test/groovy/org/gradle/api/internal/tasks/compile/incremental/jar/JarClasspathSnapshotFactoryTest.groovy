@@ -18,13 +18,15 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.file.FileTree
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, buildOperationExecutor)
 
     def "creates classpath snapshot with correct duplicate classes"() {
         def jar1 = stubArchive("f1"); def jar2 = stubArchive("f2"); def jar3 = stubArchive("f3")
@@ -78,6 +80,29 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         0 * snapshotter.createSnapshot(jar2)
     }
 
+    def "snapshots jars as separate operations and keeps classpath order"() {
+        def jar1 = stubArchive("f1")
+        def jar2 = stubArchive("f2")
+        def jar3 = stubArchive("f3")
+
+        def sn1 = Stub(JarSnapshot) { getHash() >> HashCode.fromInt(0x1234) }
+        def sn2 = Stub(JarSnapshot) { getHash() >> HashCode.fromInt(0x2345) }
+        def sn3 = Stub(JarSnapshot) { getHash() >> HashCode.fromInt(0x3456) }
+
+        when:
+        def s = factory.createSnapshot([jar1, jar2, jar3])
+
+        then:
+        1 * snapshotter.createSnapshot(jar1) >> sn1
+        1 * snapshotter.createSnapshot(jar2) >> sn2
+        1 * snapshotter.createSnapshot(jar3) >> sn3
+
+        buildOperationExecutor.operations*.displayName == ["Snapshot f1 for incremental compilation", "Snapshot f2 for incremental compilation", "Snapshot f3 for incremental compilation"]
+        s.data.jarHashes.keySet() as List == [new File("f1"), new File("f2"), new File("f3")]
+        s.jars as List == [new File("f1"), new File("f2"), new File("f3")]
+        s.getSnapshot(jar2) == sn2
+    }
+
     private JarArchive stubArchive(String name, boolean exists = true) {
         new JarArchive(new File(name) {
             boolean exists() { exists }
@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
@@ -49,6 +50,7 @@ import org.gradle.launcher.daemon.server.exec.ForwardClientInput;
 import org.gradle.launcher.daemon.server.exec.HandleCancel;
 import org.gradle.launcher.daemon.server.exec.LogAndCheckHealth;
 import org.gradle.launcher.daemon.server.exec.LogToClient;
+import org.gradle.launcher.daemon.server.exec.ReleaseCachesUnderMemoryPressure;
 import org.gradle.launcher.daemon.server.exec.RequestStopIfSingleUsedDaemon;
 import org.gradle.launcher.daemon.server.exec.ResetDeprecationLogger;
 import org.gradle.launcher.daemon.server.exec.ReturnResult;
@@ -131,7 +133,7 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DaemonHealthStats(runningStats, executorFactory);
     }
 
-    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats) {
+    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, DaemonMemoryStatus memoryStatus, CrossBuildInMemoryCacheFactory cacheFactory, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats) {
         File daemonLog = getDaemonLogFile();
         DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid());
         return ImmutableList.of(
@@ -143,6 +145,7 @@ public class DaemonServices extends DefaultServiceRegistry {
             new EstablishBuildEnvironment(processEnvironment),
             new LogToClient(loggingManager, daemonDiagnostics), // from this point down, logging is sent back to the client
             new LogAndCheckHealth(healthStats, healthCheck),
+            new ReleaseCachesUnderMemoryPressure(memoryStatus, cacheFactory),
             new ForwardClientInput(),
             new RequestStopIfSingleUsedDaemon(),
             new ResetDeprecationLogger(),
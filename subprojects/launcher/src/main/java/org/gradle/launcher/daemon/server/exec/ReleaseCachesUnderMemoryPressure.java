@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.launcher.daemon.server.health.DaemonMemoryStatus;
+
+/**
+ * Allows the in-memory caches retained from previous builds to be garbage collected when the daemon is running low on heap, rather than waiting until the daemon has to be expired.
+ */
+public class ReleaseCachesUnderMemoryPressure implements DaemonCommandAction {
+
+    private static final Logger LOG = Logging.getLogger(ReleaseCachesUnderMemoryPressure.class);
+
+    private final DaemonMemoryStatus memoryStatus;
+    private final CrossBuildInMemoryCacheFactory cacheFactory;
+
+    public ReleaseCachesUnderMemoryPressure(DaemonMemoryStatus memoryStatus, CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.memoryStatus = memoryStatus;
+        this.cacheFactory = cacheFactory;
+    }
+
+    @Override
+    public void execute(DaemonCommandExecution execution) {
+        if (execution.isSingleUseDaemon()) {
+            execution.proceed();
+            return;
+        }
+
+        execution.proceed();
+
+        if (memoryStatus.isTenuredSpaceUnderPressure()) {
+            LOG.info("Daemon is running low on tenured space, releasing in-memory caches retained from previous builds.");
+            cacheFactory.releaseRetainedValues();
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class DaemonMemoryStatus {
     public static final String TENURED_RATE_EXPIRE_AT = "org.gradle.daemon.performance.tenured-rate-expire-at";
     public static final String PERMGEN_USAGE_EXPIRE_AT = "org.gradle.daemon.performance.permgen-usage-expire-at";
     public static final String THRASHING_EXPIRE_AT = "org.gradle.daemon.performance.thrashing-expire-at";
+    public static final String TENURED_USAGE_RELEASE_CACHES_AT = "org.gradle.daemon.performance.tenured-usage-release-caches-at";
 
     private static final String TENURED = "tenured";
     private static final String PERMGEN = "perm gen";
@@ -44,6 +45,7 @@ public class DaemonMemoryStatus {
     private final double tenuredRateThreshold;
     private final int permgenUsageThreshold;
     private final double thrashingThreshold;
+    private final int tenuredUsageReleaseCachesThreshold;
 
     public DaemonMemoryStatus(DaemonHealthStats stats) {
         this.stats = stats;
@@ -52,6 +54,7 @@ public class DaemonMemoryStatus {
         this.tenuredRateThreshold = parseValue(TENURED_RATE_EXPIRE_AT, strategy.getGcRateThreshold());
         this.permgenUsageThreshold = parseValue(PERMGEN_USAGE_EXPIRE_AT, strategy.getPermGenUsageThreshold());
         this.thrashingThreshold = parseValue(THRASHING_EXPIRE_AT, strategy.getThrashingThreshold());
+        this.tenuredUsageReleaseCachesThreshold = parseValue(TENURED_USAGE_RELEASE_CACHES_AT, tenuredUsageThreshold * 3 / 4);
     }
 
     public boolean isTenuredSpaceExhausted() {
@@ -69,6 +72,22 @@ public class DaemonMemoryStatus {
         });
     }
 
+    /**
+     * Returns true when tenured space usage is high enough that in-memory caches should be released, but not necessarily high enough to expire the daemon.
+     */
+    public boolean isTenuredSpaceUnderPressure() {
+        GarbageCollectionStats gcStats = stats.getGcMonitor().getTenuredStats();
+
+        return exceedsThreshold(TENURED, gcStats, new Spec<GarbageCollectionStats>() {
+            @Override
+            public boolean isSatisfiedBy(GarbageCollectionStats gcStats) {
+                return tenuredUsageReleaseCachesThreshold > 0
+                    && gcStats.getEventCount() >= 5
+                    && gcStats.getUsage() >= tenuredUsageReleaseCachesThreshold;
+            }
+        });
+    }
+
     public boolean isPermGenSpaceExhausted() {
         GarbageCollectionStats gcStats = stats.getGcMonitor().getPermGenStats();
 
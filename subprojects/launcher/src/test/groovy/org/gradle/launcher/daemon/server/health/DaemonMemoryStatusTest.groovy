@@ -27,6 +27,7 @@ import spock.lang.Unroll
 
 import static DaemonMemoryStatus.PERMGEN_USAGE_EXPIRE_AT
 import static DaemonMemoryStatus.TENURED_RATE_EXPIRE_AT
+import static DaemonMemoryStatus.TENURED_USAGE_RELEASE_CACHES_AT
 import static DaemonMemoryStatus.TENURED_USAGE_EXPIRE_AT
 import static DaemonMemoryStatus.THRASHING_EXPIRE_AT
 
@@ -148,6 +149,66 @@ class DaemonMemoryStatusTest extends Specification {
         10             | 90             | 15   | 0    | false
     }
 
+    @Unroll
+    def "knows when tenured space is under pressure (#usageThreshold <= #used)"() {
+        when:
+        System.setProperty(TENURED_USAGE_RELEASE_CACHES_AT, usageThreshold.toString())
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+                getRate() >> 0
+                getEventCount() >> 10
+            }
+        }
+
+        then:
+        status.isTenuredSpaceUnderPressure() == underPressure
+
+        where:
+        usageThreshold | used | underPressure
+        60             | 100  | true
+        60             | 60   | true
+        60             | 59   | false
+        0              | 100  | false
+    }
+
+    def "tenured space is under pressure at a lower usage than it is exhausted by default"() {
+        when:
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> 70
+                getRate() >> 2.0
+                getEventCount() >> 10
+            }
+        }
+
+        then:
+        status.isTenuredSpaceUnderPressure()
+        !status.isTenuredSpaceExhausted()
+    }
+
+    @Unroll
+    def "tenured space is under pressure below the supplied tenured usage threshold by default (#used)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, "50")
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+                getRate() >> 2.0
+                getEventCount() >> 10
+            }
+        }
+
+        then:
+        status.isTenuredSpaceUnderPressure() == underPressure
+
+        where:
+        used | underPressure
+        49   | true
+        37   | true
+        36   | false
+    }
+
     def "can disable daemon performance monitoring"() {
         when:
         System.setProperty(DaemonMemoryStatus.ENABLE_PERFORMANCE_MONITORING, "false")
@@ -160,6 +221,9 @@ class DaemonMemoryStatusTest extends Specification {
 
         and:
         !status.isThrashing()
+
+        and:
+        !status.isTenuredSpaceUnderPressure()
     }
 
     DaemonMemoryStatus getStatus() {
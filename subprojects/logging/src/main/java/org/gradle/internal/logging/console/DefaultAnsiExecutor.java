@@ -112,7 +112,12 @@ public class DefaultAnsiExecutor implements AnsiExecutor {
 
     private void write(Ansi ansi) {
         try {
-            target.append(ansi.toString());
+            String output = ansi.toString();
+            if (output.isEmpty()) {
+                // Nothing was written, for example a redraw where nothing changed
+                return;
+            }
+            target.append(output);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -27,8 +27,18 @@ public class DefaultTextArea extends AbstractLineChoppingStyledTextOutput implem
         }
     };
     private static final int CHARS_PER_TAB_STOP = 8;
+    private static final String[] TAB_PADDING = new String[CHARS_PER_TAB_STOP + 1];
+    static {
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i <= CHARS_PER_TAB_STOP; i++) {
+            TAB_PADDING[i] = padding.toString();
+            padding.append(' ');
+        }
+    }
     private final Cursor writePos = new Cursor();
     private final AnsiExecutor ansiExecutor;
+    // Reused for every line, as this area is only ever written to by a single thread at a time
+    private final WriteLineTextAction writeLineTextAction = new WriteLineTextAction();
 
     public DefaultTextArea(AnsiExecutor ansiExecutor) {
         this.ansiExecutor = ansiExecutor;
@@ -43,43 +53,66 @@ public class DefaultTextArea extends AbstractLineChoppingStyledTextOutput implem
     }
 
     @Override
-    protected void doLineText(final CharSequence text) {
+    protected void doLineText(CharSequence text) {
         if (text.length() == 0) {
             return;
         }
 
-        ansiExecutor.writeAt(writePos, new Action<AnsiContext>() {
-            @Override
-            public void execute(AnsiContext ansi) {
-                ansi.withStyle(getStyle(), new Action<AnsiContext>() {
-                    @Override
-                    public void execute(AnsiContext ansi) {
-                        String textStr = text.toString();
-                        int pos = 0;
-                        while (pos < text.length()) {
-                            int next = textStr.indexOf('\t', pos);
-                            if (next == pos) {
-                                int charsToNextStop = CHARS_PER_TAB_STOP - (writePos.col % CHARS_PER_TAB_STOP);
-                                for(int i = 0; i < charsToNextStop; i++) {
-                                    ansi.a(" ");
-                                }
-                                pos++;
-                            } else if (next > pos) {
-                                ansi.a(textStr.substring(pos, next));
-                                pos = next;
-                            } else {
-                                ansi.a(textStr.substring(pos, textStr.length()));
-                                pos = textStr.length();
-                            }
-                        }
-                    }
-                });
-            }
-        });
+        writeLineTextAction.text = text;
+        try {
+            ansiExecutor.writeAt(writePos, writeLineTextAction);
+        } finally {
+            writeLineTextAction.text = null;
+        }
     }
 
     @Override
     protected void doEndLine(CharSequence endOfLine) {
         ansiExecutor.writeAt(writePos, NEW_LINE_ACTION);
     }
+
+    private class WriteLineTextAction implements Action<AnsiContext> {
+        private final Action<AnsiContext> writeText = new Action<AnsiContext>() {
+            @Override
+            public void execute(AnsiContext ansi) {
+                writeText(ansi, text);
+            }
+        };
+        CharSequence text;
+
+        @Override
+        public void execute(AnsiContext ansi) {
+            ansi.withStyle(getStyle(), writeText);
+        }
+
+        private void writeText(AnsiContext ansi, CharSequence text) {
+            int length = text.length();
+            int pos = 0;
+            while (pos < length) {
+                int next = indexOfTab(text, pos);
+                if (next == pos) {
+                    int charsToNextStop = CHARS_PER_TAB_STOP - (writePos.col % CHARS_PER_TAB_STOP);
+                    ansi.a(TAB_PADDING[charsToNextStop]);
+                    pos++;
+                } else if (pos == 0 && next < 0) {
+                    // Common case: no tabs at all, so write the text as is
+                    ansi.a(text);
+                    pos = length;
+                } else {
+                    int end = next < 0 ? length : next;
+                    ansi.a(text.subSequence(pos, end));
+                    pos = end;
+                }
+            }
+        }
+
+        private int indexOfTab(CharSequence text, int from) {
+            for (int i = from; i < text.length(); i++) {
+                if (text.charAt(i) == '\t') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
 }
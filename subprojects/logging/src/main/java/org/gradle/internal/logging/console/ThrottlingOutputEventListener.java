@@ -31,25 +31,37 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Queue output events to be forwarded and schedule flush when time passed or if end of build is signalled.
+ *
+ * <p>Events are forwarded outside of the queue lock, so threads generating output are not blocked while a batch of events is being rendered.
+ * The queue is bounded, and a thread that fills the queue up forwards the queued events itself.</p>
  */
 public class ThrottlingOutputEventListener implements OutputEventListener {
+    private static final int DEFAULT_MAX_QUEUED_EVENTS = 10000;
+
     private final OutputEventListener listener;
 
     private final ScheduledExecutorService executor;
     private final Clock clock;
     private final int throttleMs;
+    private final int maxQueuedEvents;
     private final Object lock = new Object();
+    private final Object renderLock = new Object();
 
     private long currentTimePeriod;
     private long lastUpdate;
-    private final List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private List<OutputEvent> queue = new ArrayList<OutputEvent>();
 
     public ThrottlingOutputEventListener(OutputEventListener listener, Clock clock) {
-        this(listener, Integer.getInteger("org.gradle.internal.console.throttle", 100), Executors.newSingleThreadScheduledExecutor(), clock);
+        this(listener, Integer.getInteger("org.gradle.internal.console.throttle", 100), Integer.getInteger("org.gradle.internal.console.max-queued-events", DEFAULT_MAX_QUEUED_EVENTS), Executors.newSingleThreadScheduledExecutor(), clock);
     }
 
     ThrottlingOutputEventListener(OutputEventListener listener, int throttleMs, ScheduledExecutorService executor, Clock clock) {
+        this(listener, throttleMs, DEFAULT_MAX_QUEUED_EVENTS, executor, clock);
+    }
+
+    ThrottlingOutputEventListener(OutputEventListener listener, int throttleMs, int maxQueuedEvents, ScheduledExecutorService executor, Clock clock) {
         this.throttleMs = throttleMs;
+        this.maxQueuedEvents = maxQueuedEvents;
         this.listener = listener;
         this.executor = executor;
         this.clock = clock;
@@ -72,30 +84,35 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
             if (newEvent instanceof UpdateNowEvent) {
                 // Flush any buffered events and update the clock
                 currentTimePeriod = ((UpdateNowEvent) newEvent).getTimestamp();
-                renderNow();
-                return;
-            }
-
-            if (newEvent instanceof FlushOutputEvent) {
-                renderNow();
+            } else if (!(newEvent instanceof FlushOutputEvent) && !(newEvent instanceof EndOutputEvent) && queue.size() < maxQueuedEvents) {
+                // Wait for the next update event
                 return;
             }
+        }
 
-            if (newEvent instanceof EndOutputEvent) {
-                // Flush and clean up
-                renderNow();
-                executor.shutdown();
-            }
+        renderNow();
 
-            // Else, wait for the next update event
+        if (newEvent instanceof EndOutputEvent) {
+            // Clean up
+            executor.shutdown();
         }
     }
 
     private void renderNow() {
-        for (OutputEvent event : queue) {
-            listener.onOutput(event);
+        // Hold the render lock while taking the queued events, so that batches are forwarded in the order they were queued
+        synchronized (renderLock) {
+            List<OutputEvent> events;
+            synchronized (lock) {
+                if (queue.isEmpty()) {
+                    return;
+                }
+                events = queue;
+                queue = new ArrayList<OutputEvent>();
+                lastUpdate = currentTimePeriod;
+            }
+            for (OutputEvent event : events) {
+                listener.onOutput(event);
+            }
         }
-        queue.clear();
-        lastUpdate = currentTimePeriod;
     }
 }
@@ -135,6 +135,27 @@ class DefaultAnsiExecutorTest extends Specification {
         0 * newLineListener._
     }
 
+    def "does not append to target when nothing was written"() {
+        given:
+        def target = Mock(Appendable)
+        def ansiExecutor = new DefaultAnsiExecutor(target, colorMap, new DefaultAnsiFactory(true), consoleMetaData, writeCursor, newLineListener)
+
+        when:
+        ansiExecutor.write {}
+        ansiExecutor.writeAt(Cursor.at(0, 0)) {}
+
+        then:
+        0 * target._
+
+        when:
+        ansiExecutor.write {
+            it.a("text")
+        }
+
+        then:
+        1 * target.append("text")
+    }
+
     def expectLineWrapCallback(int writtenRow, int writtenLength) {
         int numberOfWrap = writtenLength / (TERMINAL_WIDTH + 1)
         while (numberOfWrap-- > 0) {
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.console
+
+import org.gradle.internal.nativeintegration.console.ConsoleMetaData
+import spock.lang.Specification
+
+class DefaultTextAreaTest extends Specification {
+    def target = new StringBuilder()
+    def consoleMetaData = Stub(ConsoleMetaData) {
+        getCols() >> 80
+    }
+    def textArea = new DefaultTextArea(new DefaultAnsiExecutor(target, new TestColorMap(), new DefaultAnsiFactory(true), consoleMetaData))
+
+    def "writes text without tabs as is"() {
+        when:
+        textArea.text("some text")
+
+        then:
+        target.toString() == "some text"
+        textArea.writePosition == Cursor.at(0, 9)
+    }
+
+    def "expands tabs to the next tab stop"() {
+        when:
+        textArea.text("a\tbc\t\tdefghijkl\tm")
+
+        then:
+        target.toString() == "a       bc              defghijkl       m"
+        textArea.writePosition == Cursor.at(0, 41)
+    }
+
+    def "expands tabs relative to text already written to the line"() {
+        when:
+        textArea.text("abc")
+        textArea.text("\td")
+
+        then:
+        target.toString() == "abc     d"
+        textArea.writePosition == Cursor.at(0, 9)
+    }
+}
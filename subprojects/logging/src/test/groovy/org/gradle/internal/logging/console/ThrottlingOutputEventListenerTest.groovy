@@ -129,6 +129,62 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
         0 * _
     }
 
+    def "forwards queued events when the queue is full"() {
+        def renderer = new ThrottlingOutputEventListener(listener, 100, 3, executor, clock)
+        def event1 = event('1')
+        def event2 = event('2')
+        def event3 = event('3')
+
+        when:
+        renderer.onOutput(event1)
+        renderer.onOutput(event2)
+
+        then:
+        0 * _
+
+        when:
+        renderer.onOutput(event3)
+
+        then:
+        1 * listener.onOutput(event1)
+
+        then:
+        1 * listener.onOutput(event2)
+
+        then:
+        1 * listener.onOutput(event3)
+        0 * _
+    }
+
+    def "does not block threads queueing events while events are forwarded"() {
+        def event1 = event('1')
+        def event2 = event('2')
+        def queuedWhileForwarding = false
+
+        when:
+        renderer.onOutput(event1)
+        renderer.onOutput(new FlushOutputEvent())
+
+        then:
+        1 * listener.onOutput(event1) >> {
+            def thread = new Thread({ renderer.onOutput(event2) })
+            thread.start()
+            thread.join(10000)
+            queuedWhileForwarding = !thread.alive
+        }
+        1 * listener.onOutput(_ as FlushOutputEvent)
+        0 * _
+        queuedWhileForwarding
+
+        when:
+        executor.runFixedScheduledActionsNow()
+
+        then:
+        1 * listener.onOutput(event2)
+        1 * listener.onOutput(_ as UpdateNowEvent)
+        0 * _
+    }
+
     def "shuts down executor when receiving end output event"() {
         expect:
         !executor.isShutdown()
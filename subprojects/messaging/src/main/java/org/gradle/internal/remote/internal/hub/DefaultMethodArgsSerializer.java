@@ -21,6 +21,7 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
@@ -38,13 +39,7 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         if (types.length == 0) {
             return new EmptyArraySerializer();
         }
-        SerializerRegistry selected = null;
-        for (SerializerRegistry serializerRegistry : serializerRegistries) {
-            if (serializerRegistry.canSerialize(types[0])) {
-                selected = serializerRegistry;
-                break;
-            }
-        }
+        SerializerRegistry selected = selectRegistry(types);
         if (selected == null) {
             return defaultArgsSerializer.forTypes(types);
         }
@@ -57,6 +52,26 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         return new ArraySerializer(serializers);
     }
 
+    // Only use the default serializer when no single registry can handle all of the parameters
+    @Nullable
+    private SerializerRegistry selectRegistry(Class<?>[] types) {
+        for (SerializerRegistry serializerRegistry : serializerRegistries) {
+            if (canSerializeAll(serializerRegistry, types)) {
+                return serializerRegistry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean canSerializeAll(SerializerRegistry serializerRegistry, Class<?>[] types) {
+        for (Class<?> type : types) {
+            if (!serializerRegistry.canSerialize(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static class ArraySerializer implements Serializer<Object[]> {
         private final Serializer<Object>[] serializers;
 
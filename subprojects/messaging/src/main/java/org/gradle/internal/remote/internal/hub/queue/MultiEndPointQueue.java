@@ -27,7 +27,8 @@ import java.util.concurrent.locks.Lock;
 // TODO - share a single initializer with MultiChannelQueue
 public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
     private final Set<EndPointQueue> endpoints = new HashSet<EndPointQueue>();
-    private final List<InterHubMessage> queue = new ArrayList<InterHubMessage>();
+    // Messages can pile up here while the connection is busy writing, so use a deque to make removing from the head cheap
+    private final Deque<InterHubMessage> queue = new ArrayDeque<InterHubMessage>();
     private final List<EndPointQueue> waiting = new ArrayList<EndPointQueue>();
     private final Lock lock;
     private final QueueInitializer initializer = new QueueInitializer();
@@ -62,7 +63,7 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
         // waiting endpoint, even if there are multiple waiting to do work
         EndPointQueue selected = waiting.isEmpty() ? null : waiting.get(0);
         while (!queue.isEmpty()) {
-            InterHubMessage message = queue.get(0);
+            InterHubMessage message = queue.getFirst();
             switch (message.getDelivery()) {
                 case Stateful:
                 case AllHandlers:
@@ -75,14 +76,14 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
                     for (EndPointQueue endpoint : endpoints) {
                         endpoint.dispatch(message);
                     }
-                    queue.remove(0);
+                    queue.removeFirst();
                     waiting.clear();
                     continue;
                 case SingleHandler:
                     if (selected == null) {
                         return;
                     }
-                    queue.remove(0);
+                    queue.removeFirst();
                     waiting.remove(selected);
                     selected.dispatch(message);
                     break;
@@ -40,6 +40,23 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages == [message1, message2]
     }
 
+    def "forwards large backlog of queued messages in order"() {
+        given:
+        def queued = (1..10000).collect { unicast() }
+        def endpoint = queue.newEndpoint()
+
+        and:
+        queued.each { queue.dispatch(it) }
+
+        when:
+        queue.empty(endpoint)
+        def messages = []
+        endpoint.take(messages)
+
+        then:
+        messages == queued
+    }
+
     def "forwards unicast message to first waiting endpoint"() {
         given:
         def message = unicast()
@@ -34,6 +34,7 @@ import spock.lang.Timeout
 import spock.lang.Unroll
 
 import java.nio.channels.SocketChannel
+import java.util.concurrent.LinkedBlockingQueue
 
 @Timeout(60)
 class TcpConnectorTest extends ConcurrentSpec {
@@ -91,6 +92,25 @@ class TcpConnectorTest extends ConcurrentSpec {
         connection?.stop()
     }
 
+    def "disables write delay on both ends of the connection"() {
+        def connected = new LinkedBlockingQueue()
+        Action action = { ConnectCompletion completion -> connected.put(completion.create(serializer)) } as Action
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        def serverConnection = connected.take()
+
+        then:
+        connection.socket.socket().tcpNoDelay
+        serverConnection.socket.socket().tcpNoDelay
+
+        cleanup:
+        serverConnection?.stop()
+        acceptor?.stop()
+        connection?.stop()
+    }
+
     def "client throws exception when cannot connect to server"() {
         def address = new MultiChoiceAddress(idGenerator.generateId(), portAllocator.assignPort(), [InetAddress.getByName("localhost")])
 
@@ -23,19 +23,38 @@ import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TestOutputStore {
 
+    /**
+     * The outputs file is memory mapped for reading, except on Windows, where a mapped file cannot be deleted until the mapping has
+     * been garbage collected.
+     */
+    private static final boolean MAP_OUTPUTS = !OperatingSystem.current().isWindows();
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
 
+    // The index and mapped outputs are shared by all readers, and discarded when a writer is created
+    private Index cachedIndex;
+    private ByteBuffer cachedOutputs;
+
     public TestOutputStore(File resultsDir) {
         this.resultsDir = resultsDir;
         this.messageStorageCharset = Charset.forName("UTF-8");
@@ -75,6 +94,7 @@ public class TestOutputStore {
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
         public Writer() {
+            discardReaderState();
             try {
                 output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
             } catch (FileNotFoundException e) {
@@ -86,6 +106,7 @@ public class TestOutputStore {
         public void close() {
             output.close();
             writeIndex();
+            discardReaderState();
         }
 
         public void onOutput(long classId, TestOutputEvent outputEvent) {
@@ -171,6 +192,74 @@ public class TestOutputStore {
         return new Writer();
     }
 
+    private synchronized void discardReaderState() {
+        cachedIndex = null;
+        cachedOutputs = null;
+    }
+
+    private synchronized Index getIndex() {
+        if (cachedIndex == null) {
+            cachedIndex = readIndex();
+        }
+        return cachedIndex;
+    }
+
+    /**
+     * Returns the mapped outputs file, or null when the file cannot be mapped.
+     */
+    private synchronized ByteBuffer getMappedOutputs() {
+        if (cachedOutputs == null && MAP_OUTPUTS) {
+            try {
+                RandomAccessFile file = new RandomAccessFile(getOutputsFile(), "r");
+                try {
+                    FileChannel channel = file.getChannel();
+                    if (channel.size() <= Integer.MAX_VALUE) {
+                        cachedOutputs = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                } finally {
+                    file.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return cachedOutputs;
+    }
+
+    private Index readIndex() {
+        Input input;
+        try {
+            input = new Input(new FileInputStream(getIndexFile()));
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        IndexBuilder rootBuilder;
+        try {
+            int numClasses = input.readInt(true);
+            rootBuilder = new IndexBuilder();
+
+            for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
+                long classId = input.readLong(true);
+                IndexBuilder classBuilder = new IndexBuilder();
+
+                int numEntries = input.readInt(true);
+                for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
+                    long testId = input.readLong(true);
+                    Region stdOut = new Region(input.readLong(), input.readLong());
+                    Region stdErr = new Region(input.readLong(), input.readLong());
+                    classBuilder.add(testId, new Index(stdOut, stdErr));
+                }
+
+                rootBuilder.add(classId, classBuilder.build());
+            }
+        } finally {
+            input.close();
+        }
+
+        return rootBuilder.build();
+    }
+
     private static class Index {
         final ImmutableMap<Long, Index> children;
         final Region stdOut;
@@ -219,6 +308,7 @@ public class TestOutputStore {
 
     public class Reader implements Closeable {
         private final Index index;
+        private final ByteBuffer mappedData;
         private final RandomAccessFile dataFile;
 
         public Reader() {
@@ -230,42 +320,17 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
-                try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
+                index = getIndex();
+                mappedData = getMappedOutputs();
 
-                        rootBuilder.add(classId, classBuilder.build());
+                if (mappedData == null) {
+                    try {
+                        dataFile = new RandomAccessFile(getOutputsFile(), "r");
+                    } catch (FileNotFoundException e) {
+                        throw new UncheckedIOException(e);
                     }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
+                } else {
+                    dataFile = null;
                 }
             } else { // no outputs file
                 if (indexFile.exists()) {
@@ -273,6 +338,7 @@ public class TestOutputStore {
                 }
 
                 index = null;
+                mappedData = null;
                 dataFile = null;
             }
         }
@@ -285,7 +351,7 @@ public class TestOutputStore {
         }
 
         public boolean hasOutput(long classId, TestOutputEvent.Destination destination) {
-            if (dataFile == null) {
+            if (index == null) {
                 return false;
             }
 
@@ -311,7 +377,7 @@ public class TestOutputStore {
         }
 
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            if (dataFile == null) {
+            if (index == null) {
                 return;
             }
 
@@ -334,6 +400,11 @@ public class TestOutputStore {
             boolean ignoreClassLevel = !allClassOutput && testId != 0;
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
+            if (mappedData != null) {
+                readMapped(region, classId, testId, stdout, ignoreClassLevel, ignoreTestLevel, writer);
+                return;
+            }
+
             try {
                 dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
@@ -381,6 +452,83 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        /**
+         * Reads the records of the region directly from the mapped outputs file. Records that do not match are skipped without being
+         * copied, and messages are decoded from the mapped file straight into the writer.
+         */
+        private void readMapped(Region region, long classId, long testId, boolean stdout, boolean ignoreClassLevel, boolean ignoreTestLevel, java.io.Writer writer) {
+            ByteBuffer buffer = mappedData.duplicate();
+            buffer.position((int) region.start);
+            CharsetDecoder decoder = null;
+            CharBuffer chars = null;
+            try {
+                while (buffer.position() <= region.stop) {
+                    boolean readStdout = buffer.get() != 0;
+                    long readClassId = readSmallLong(buffer);
+                    long readTestId = readSmallLong(buffer);
+                    int readLength = (int) readSmallLong(buffer);
+                    int messageEnd = buffer.position() + readLength;
+
+                    boolean isClassLevel = readTestId == 0;
+                    boolean matches = stdout == readStdout && classId == readClassId
+                        && !(ignoreClassLevel && isClassLevel) && !(ignoreTestLevel && !isClassLevel)
+                        && (testId == 0 || testId == readTestId);
+
+                    if (matches) {
+                        if (decoder == null) {
+                            decoder = messageStorageCharset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+                            chars = CharBuffer.allocate(DECODE_BUFFER_SIZE);
+                        }
+                        ByteBuffer message = buffer.slice();
+                        message.limit(readLength);
+                        decode(message, decoder, chars, writer);
+                    }
+                    buffer.position(messageEnd);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void decode(ByteBuffer message, CharsetDecoder decoder, CharBuffer chars, java.io.Writer writer) throws IOException {
+            decoder.reset();
+            CoderResult result;
+            do {
+                result = decoder.decode(message, chars, true);
+                checkResult(result);
+                writer.write(chars.array(), 0, chars.position());
+                chars.clear();
+            } while (result.isOverflow());
+            do {
+                result = decoder.flush(chars);
+                checkResult(result);
+                writer.write(chars.array(), 0, chars.position());
+                chars.clear();
+            } while (result.isOverflow());
+        }
+
+        private void checkResult(CoderResult result) throws CharacterCodingException {
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+    }
+
+    /**
+     * Reads a variable length value, as written by {@link KryoBackedEncoder#writeSmallLong(long)} and {@link KryoBackedEncoder#writeSmallInt(int)}.
+     */
+    private static long readSmallLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 56; shift += 7) {
+            int b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        // The ninth byte of a value holds 8 bits
+        return result | (long) (buffer.get() & 0xFF) << 56;
     }
 
     // IMPORTANT: return must be closed when done with.
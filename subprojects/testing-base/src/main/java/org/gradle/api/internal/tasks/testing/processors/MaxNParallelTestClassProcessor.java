@@ -30,25 +30,32 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Assigns each test class to the processor with the least estimated
+ * work assigned so far, based on the durations of the test classes in a previous run. Without previous durations,
+ * every test class is estimated to take the same time, which assigns the test classes round-robin.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassDurations durations;
     private TestResultProcessor resultProcessor;
-    private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
+    private List<Long> assignedWork = new ArrayList<Long>();
     private List<TestClassProcessor> rawProcessors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, TestClassDurations.none());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, TestClassDurations durations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.durations = durations;
     }
 
     @Override
@@ -64,20 +71,32 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             return;
         }
 
-        TestClassProcessor processor;
+        int pos;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
+            TestClassProcessor processor = factory.create();
             rawProcessors.add(processor);
             Actor actor = actorFactory.createActor(processor);
             processor = actor.getProxy(TestClassProcessor.class);
             actors.add(actor);
             processors.add(processor);
+            assignedWork.add(0L);
             processor.startProcessing(resultProcessor);
+            pos = processors.size() - 1;
         } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            pos = leastBusyProcessor();
+        }
+        assignedWork.set(pos, assignedWork.get(pos) + durations.estimate(testClass.getTestClassName()));
+        processors.get(pos).processTestClass(testClass);
+    }
+
+    private int leastBusyProcessor() {
+        int pos = 0;
+        for (int i = 1; i < assignedWork.size(); i++) {
+            if (assignedWork.get(i) < assignedWork.get(pos)) {
+                pos = i;
+            }
         }
-        processor.processTestClass(testClass);
+        return pos;
     }
 
     @Override
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The durations of test classes measured by a previous test run, used to estimate how long each test class will take.
+ * A test class without a previous duration is estimated to take the average duration of the other test classes.
+ */
+public class TestClassDurations {
+    private static final TestClassDurations NONE = new TestClassDurations(Collections.<String, Long>emptyMap());
+
+    private final Map<String, Long> durations;
+    private final long defaultEstimate;
+
+    public static TestClassDurations none() {
+        return NONE;
+    }
+
+    public TestClassDurations(Map<String, Long> durations) {
+        this.durations = new HashMap<String, Long>(durations);
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += Math.max(duration, 1);
+        }
+        this.defaultEstimate = durations.isEmpty() ? 1 : Math.max(total / durations.size(), 1);
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Returns the estimated duration of the given test class, which is always at least 1.
+     */
+    public long estimate(String testClassName) {
+        Long duration = durations.get(testClassName);
+        return duration == null ? defaultEstimate : Math.max(duration, 1);
+    }
+}
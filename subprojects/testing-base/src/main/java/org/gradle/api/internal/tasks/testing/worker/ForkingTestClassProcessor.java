@@ -33,6 +33,7 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
@@ -47,15 +48,24 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final ReusableTestWorkerManager workerManager;
     private final Lock lock = new ReentrantLock();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private ReusableTestWorkerClient reusableWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null);
+    }
+
+    /**
+     * @param workerManager the manager to reserve a reusable worker from, or null to start a new worker process.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable ReusableTestWorkerManager workerManager) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -64,6 +74,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerManager = workerManager;
     }
 
     @Override
@@ -82,7 +93,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor == null) {
                 completion = currentWorkerLease.startChild();
                 JULRedirector.checkDeprecatedProperty(options);
-                remoteProcessor = forkProcess();
+                remoteProcessor = workerManager == null ? forkProcess() : reserveWorker();
             }
 
             remoteProcessor.processTestClass(testClass);
@@ -93,12 +104,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     RemoteTestClassProcessor forkProcess() {
         WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
-        builder.setBaseName("Gradle Test Executor");
-        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        configureWorker(builder);
         builder.applicationClasspath(classPath);
-        options.copyTo(builder.getJavaCommand());
-        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
-        buildConfigAction.execute(builder);
 
         workerProcess = builder.build();
         workerProcess.start();
@@ -112,6 +119,23 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         return remoteProcessor;
     }
 
+    RemoteTestClassProcessor reserveWorker() {
+        WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+        configureWorker(builder);
+
+        List<File> classpath = CollectionUtils.toList(classPath);
+        reusableWorker = workerManager.reserve(builder, classpath);
+        return reusableWorker.startSession(processorFactory, classpath, resultProcessor);
+    }
+
+    private void configureWorker(WorkerProcessBuilder builder) {
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
@@ -149,7 +173,13 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                 } finally {
                     lock.unlock();
                 }
-                workerProcess.waitForStop();
+                if (reusableWorker == null) {
+                    workerProcess.waitForStop();
+                } else if (stoppedNow) {
+                    workerManager.discard(reusableWorker);
+                } else {
+                    workerManager.release(reusableWorker);
+                }
             } catch (ExecException e) {
                 if (!stoppedNow) {
                     throw new ExecException(e.getMessage()
@@ -168,7 +198,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         lock.lock();
         try {
             stoppedNow = true;
-            if (remoteProcessor != null) {
+            if (reusableWorker != null) {
+                reusableWorker.stopNow();
+            } else if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
         } finally {
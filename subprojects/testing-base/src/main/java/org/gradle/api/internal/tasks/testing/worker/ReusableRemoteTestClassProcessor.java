@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A {@link RemoteTestClassProcessor} that runs the tests of several test executions, one after the other, in the same worker process.
+ *
+ * @see ReusableTestWorker
+ */
+public interface ReusableRemoteTestClassProcessor extends RemoteTestClassProcessor {
+    /**
+     * Starts a new session, which runs the tests created by the given factory. The given classpath is loaded by a new ClassLoader on top of the
+     * application ClassLoader of the worker. The session ends when {@link #stop()} is called. Does not block.
+     */
+    void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath);
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void shutdown();
+}
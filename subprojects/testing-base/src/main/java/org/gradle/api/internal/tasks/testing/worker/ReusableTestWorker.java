@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.WeakReference;
+import java.net.URLClassLoader;
+import java.security.AccessControlException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that runs the tests of several test executions, one after the other, until it is shut down.
+ *
+ * <p>The classpath entries that are not on the application classpath of the worker are loaded by a new ClassLoader for every session.
+ * When a session ends, the worker reports that it cannot be reused when that ClassLoader cannot be garbage collected, or when too much of
+ * the heap is still in use.</p>
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, ReusableRemoteTestClassProcessor, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private static final double MAX_RETAINED_HEAP_FRACTION = 0.5;
+    private static final int MAX_GC_ATTEMPTS = 3;
+    private CountDownLatch shutdown;
+    private WorkerProcessContext workerProcessContext;
+    private DefaultServiceRegistry testServices;
+    private TestWorkerSessionResultProcessor resultProcessor;
+    private TestClassProcessor processor;
+    private URLClassLoader sessionClassLoader;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started, waiting for test executions.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        shutdown = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        resultProcessor = serverConnection.addOutgoing(TestWorkerSessionResultProcessor.class);
+        serverConnection.addIncoming(ReusableRemoteTestClassProcessor.class, this);
+        serverConnection.connect();
+
+        try {
+            try {
+                shutdown.await();
+            } catch (InterruptedException e) {
+                throw new UncheckedException(e);
+            }
+        } finally {
+            LOGGER.info("{} stopped.", workerProcessContext.getDisplayName());
+            System.setSecurityManager(null);
+            testServices.close();
+        }
+    }
+
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory factory, List<File> sessionClasspath) {
+        ClassLoader applicationClassLoader = workerProcessContext.getApplicationClassLoader();
+        if (!sessionClasspath.isEmpty()) {
+            sessionClassLoader = new URLClassLoader(DefaultClassPath.of(sessionClasspath).getAsURLArray(), applicationClassLoader);
+            applicationClassLoader = sessionClassLoader;
+        }
+
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<?> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        processor = proxy.getSource();
+    }
+
+    @Override
+    public void startProcessing() {
+        Thread.currentThread().setName("Test worker");
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } catch (AccessControlException e) {
+            shutdown.countDown();
+            throw e;
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.stop();
+        } finally {
+            // Clean the interrupted status
+            // because some test class processors do work here, e.g. JUnitPlatform
+            Thread.interrupted();
+            resultProcessor.sessionCompleted(endSession());
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown.countDown();
+    }
+
+    /**
+     * Discards the state of the session, and returns whether the worker can run another session.
+     */
+    private boolean endSession() {
+        processor = null;
+        // Clean out any security manager the tests might have installed
+        System.setSecurityManager(null);
+
+        WeakReference<ClassLoader> classLoaderReference = null;
+        if (sessionClassLoader != null) {
+            classLoaderReference = new WeakReference<ClassLoader>(sessionClassLoader);
+            CompositeStoppable.stoppable(sessionClassLoader).stop();
+            sessionClassLoader = null;
+        }
+        for (int attempt = 0; attempt < MAX_GC_ATTEMPTS; attempt++) {
+            System.gc();
+            if (classLoaderReference == null || classLoaderReference.get() == null) {
+                break;
+            }
+        }
+
+        if (classLoaderReference != null && classLoaderReference.get() != null) {
+            LOGGER.info("{} will not be reused, as the classes of the test execution are still referenced.", workerProcessContext.getDisplayName());
+            return false;
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        if (heap.getMax() > 0 && heap.getUsed() > heap.getMax() * MAX_RETAINED_HEAP_FRACTION) {
+            LOGGER.info("{} will not be reused, as {} bytes of its heap are still in use.", workerProcessContext.getDisplayName(), heap.getUsed());
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The build side of a {@link ReusableTestWorker} process, which runs one session at a time.
+ */
+class ReusableTestWorkerClient implements Stoppable {
+    private enum SessionState {
+        IDLE, RUNNING, REUSABLE, NOT_REUSABLE
+    }
+
+    private final ReusableTestWorkerManager.WorkerKey key;
+    private final ImmutableList<File> jars;
+    private final FileHasher fileHasher;
+    private final List<HashCode> jarHashes;
+    private final WorkerProcess workerProcess;
+    private final ReusableRemoteTestClassProcessor remoteProcessor;
+    private final Object lock = new Object();
+    private TestResultProcessor resultProcessor;
+    private SessionState state = SessionState.IDLE;
+    private boolean connectionClosed;
+
+    ReusableTestWorkerClient(ReusableTestWorkerManager.WorkerKey key, List<File> jars, FileHasher fileHasher, WorkerProcess workerProcess) {
+        this.key = key;
+        this.jars = ImmutableList.copyOf(jars);
+        this.fileHasher = fileHasher;
+        this.jarHashes = hash(this.jars);
+        this.workerProcess = workerProcess;
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestWorkerSessionResultProcessor.class, new SessionResultProcessor());
+        remoteProcessor = connection.addOutgoing(ReusableRemoteTestClassProcessor.class);
+        connection.connect();
+    }
+
+    ReusableTestWorkerManager.WorkerKey getKey() {
+        return key;
+    }
+
+    WorkerProcess getWorkerProcess() {
+        return workerProcess;
+    }
+
+    /**
+     * Returns whether the content of any of the jars on the application classpath of the worker has changed since the worker was started.
+     */
+    boolean hasChangedJars() {
+        for (File jar : jars) {
+            if (!jar.isFile()) {
+                return true;
+            }
+        }
+        return !jarHashes.equals(hash(jars));
+    }
+
+    private List<HashCode> hash(List<File> files) {
+        List<HashCode> hashes = new ArrayList<HashCode>(files.size());
+        for (File file : files) {
+            hashes.add(fileHasher.hash(file));
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns whether the worker can run tests with the given classpath, that is whether all jars on the application classpath of the worker are part of it.
+     */
+    boolean canRun(List<File> classpath) {
+        return classpath.containsAll(jars);
+    }
+
+    /**
+     * Starts a session that runs tests with the given classpath, and returns the processor to send the test classes to.
+     */
+    RemoteTestClassProcessor startSession(WorkerTestClassProcessorFactory factory, List<File> classpath, TestResultProcessor resultProcessor) {
+        Set<File> applicationClasspath = new HashSet<File>(jars);
+        List<File> sessionClasspath = new ArrayList<File>();
+        for (File file : classpath) {
+            if (!applicationClasspath.contains(file)) {
+                sessionClasspath.add(file);
+            }
+        }
+
+        synchronized (lock) {
+            this.resultProcessor = resultProcessor;
+            state = SessionState.RUNNING;
+        }
+        remoteProcessor.startSession(factory, sessionClasspath);
+        remoteProcessor.startProcessing();
+        return remoteProcessor;
+    }
+
+    /**
+     * Waits for the current session to end, once the processor has been stopped, and returns whether the worker can run another session.
+     */
+    boolean awaitSessionCompletion() {
+        synchronized (lock) {
+            try {
+                while (state == SessionState.RUNNING && !connectionClosed) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            resultProcessor = null;
+            return state == SessionState.REUSABLE && !connectionClosed;
+        }
+    }
+
+    /**
+     * Returns the memory committed by the worker process, or 0 when the worker has not reported it yet.
+     */
+    long getMemoryUsage() {
+        try {
+            return workerProcess.getJvmMemoryStatus().getCommittedMemory();
+        } catch (IllegalStateException e) {
+            // The worker has not reported its memory usage yet
+            return 0;
+        }
+    }
+
+    void stopNow() {
+        workerProcess.stopNow();
+    }
+
+    /**
+     * Stops the worker process, and waits for it to exit.
+     */
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            if (!connectionClosed) {
+                remoteProcessor.shutdown();
+            }
+        }
+        workerProcess.waitForStop();
+    }
+
+    private TestResultProcessor getResultProcessor() {
+        synchronized (lock) {
+            return resultProcessor;
+        }
+    }
+
+    /**
+     * Forwards the test events of the worker to the result processor of the current session.
+     */
+    private class SessionResultProcessor implements TestWorkerSessionResultProcessor, StreamCompletion {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            getResultProcessor().started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            getResultProcessor().completed(testId, event);
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            getResultProcessor().output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            getResultProcessor().failure(testId, result);
+        }
+
+        @Override
+        public void sessionCompleted(boolean reusable) {
+            synchronized (lock) {
+                state = reusable ? SessionState.REUSABLE : SessionState.NOT_REUSABLE;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void endStream() {
+            synchronized (lock) {
+                connectionClosed = true;
+                lock.notifyAll();
+            }
+        }
+    }
+}
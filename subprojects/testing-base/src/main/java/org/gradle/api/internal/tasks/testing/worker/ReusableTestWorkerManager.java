@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.worker.WorkerProcess;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps test worker processes alive between test executions in the same process, so that the JVM start up and the warm up of the test framework are
+ * not paid by every test execution. This is an opt-in feature, enabled by the {@value #REUSE_WORKERS_PROPERTY} system property.
+ *
+ * <p>A worker is only reused by a test execution with the same JVM settings. The jars of the test runtime classpath are loaded by the system
+ * ClassLoader of the worker, and a worker is only reused when the content of none of these jars has changed. The other classpath entries, such as the class
+ * directories, are loaded by a new ClassLoader for every test execution. A worker is stopped when it reports that the classes of a test
+ * execution could not be garbage collected or that too much of its heap is still in use, and idle workers are stopped when memory is low.</p>
+ *
+ * <p>Workers are not reused when the JVM is started with a Java agent, see {@link #canReuseWorkers(Iterable)}. As the class directories and
+ * resources of the test runtime classpath are only visible to the ClassLoader created for the test execution, a library from one of the jars
+ * that looks up resources using its own ClassLoader, rather than the context ClassLoader, will not find the resources of the tests. Builds
+ * that rely on this should not enable worker reuse.</p>
+ */
+public class ReusableTestWorkerManager implements MemoryHolder, Stoppable {
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.internal.test.reuse-workers";
+    private static final Logger LOGGER = Logging.getLogger(ReusableTestWorkerManager.class);
+    private static final int MAX_IDLE_WORKERS = 4;
+
+    private final FileHasher fileHasher;
+    private final MemoryManager memoryManager;
+    private final Object lock = new Object();
+    private final LinkedList<ReusableTestWorkerClient> idle = new LinkedList<ReusableTestWorkerClient>();
+    private boolean stopped;
+
+    public ReusableTestWorkerManager(FileHasher fileHasher, MemoryManager memoryManager) {
+        this.fileHasher = fileHasher;
+        this.memoryManager = memoryManager;
+        memoryManager.addMemoryHolder(this);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_WORKERS_PROPERTY);
+    }
+
+    /**
+     * Returns whether a worker started with the given JVM arguments can be reused. Java agents, such as a coverage agent, usually write
+     * their results when the JVM exits, so a worker that uses an agent must be stopped at the end of its test execution.
+     */
+    public static boolean canReuseWorkers(Iterable<String> jvmArgs) {
+        for (String jvmArg : jvmArgs) {
+            if (jvmArg.startsWith("-javaagent:") || jvmArg.startsWith("-agentlib:") || jvmArg.startsWith("-agentpath:")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an idle worker that was started with the same settings as the given builder and can run tests with the given classpath, or
+     * starts a new worker using the builder. The worker must be handed back using {@link #release(ReusableTestWorkerClient)} or
+     * {@link #discard(ReusableTestWorkerClient)}.
+     */
+    ReusableTestWorkerClient reserve(WorkerProcessBuilder builder, List<File> classpath) {
+        WorkerKey key = new WorkerKey(builder);
+        List<ReusableTestWorkerClient> stale = new ArrayList<ReusableTestWorkerClient>();
+        ReusableTestWorkerClient result = null;
+        synchronized (lock) {
+            // Prefer the most recently used worker, as it is the most likely to still have warm JIT and class caches
+            Iterator<ReusableTestWorkerClient> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                ReusableTestWorkerClient candidate = iterator.next();
+                if (!candidate.getKey().equals(key)) {
+                    continue;
+                }
+                if (candidate.hasChangedJars()) {
+                    iterator.remove();
+                    stale.add(candidate);
+                } else if (candidate.canRun(classpath)) {
+                    iterator.remove();
+                    result = candidate;
+                    break;
+                }
+            }
+        }
+        stopWorkers(stale);
+        if (result != null) {
+            return result;
+        }
+
+        List<File> jars = new ArrayList<File>();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                jars.add(file);
+            }
+        }
+        builder.applicationClasspath(jars);
+        builder.enableJvmMemoryInfoPublishing(true);
+        WorkerProcess workerProcess = builder.build();
+        workerProcess.start();
+        return new ReusableTestWorkerClient(key, jars, fileHasher, workerProcess);
+    }
+
+    /**
+     * Hands back a worker once its processor has been stopped, so it can be reused.
+     */
+    void release(ReusableTestWorkerClient worker) {
+        boolean reusable = worker.awaitSessionCompletion();
+        ReusableTestWorkerClient evicted = null;
+        synchronized (lock) {
+            if (reusable && !stopped) {
+                idle.addFirst(worker);
+                if (idle.size() > MAX_IDLE_WORKERS) {
+                    evicted = idle.removeLast();
+                }
+                worker = null;
+            }
+        }
+        if (worker != null) {
+            worker.stop();
+        }
+        if (evicted != null) {
+            evicted.stop();
+        }
+    }
+
+    /**
+     * Stops a worker that must not be reused, for example after its test execution has been cancelled.
+     */
+    void discard(ReusableTestWorkerClient worker) {
+        worker.stopNow();
+        worker.getWorkerProcess().waitForStop();
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<ReusableTestWorkerClient> toStop = new ArrayList<ReusableTestWorkerClient>();
+        long releasedBytes = 0;
+        synchronized (lock) {
+            // Stop the least recently used workers first
+            while (releasedBytes < memoryAmountBytes && !idle.isEmpty()) {
+                ReusableTestWorkerClient worker = idle.removeLast();
+                toStop.add(worker);
+                releasedBytes += worker.getMemoryUsage();
+            }
+        }
+        stopWorkers(toStop);
+        return releasedBytes;
+    }
+
+    @Override
+    public void stop() {
+        List<ReusableTestWorkerClient> toStop;
+        synchronized (lock) {
+            stopped = true;
+            toStop = new ArrayList<ReusableTestWorkerClient>(idle);
+            idle.clear();
+        }
+        memoryManager.removeMemoryHolder(this);
+        stopWorkers(toStop);
+    }
+
+    private void stopWorkers(List<ReusableTestWorkerClient> workers) {
+        if (!workers.isEmpty()) {
+            LOGGER.debug("Stopping {} idle test worker(s).", workers.size());
+            CompositeStoppable.stoppable(workers).stop();
+        }
+    }
+
+    /**
+     * The settings of a worker process, apart from its application classpath.
+     */
+    static class WorkerKey {
+        private final String executable;
+        private final File workingDir;
+        private final ImmutableMap<String, String> environment;
+        private final ImmutableList<String> jvmArgs;
+        private final ImmutableSet<String> sharedPackages;
+        private final LogLevel logLevel;
+
+        WorkerKey(WorkerProcessBuilder builder) {
+            JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+            this.executable = javaCommand.getExecutable();
+            this.workingDir = javaCommand.getWorkingDir();
+            this.environment = ImmutableMap.copyOf(javaCommand.getActualEnvironment());
+            this.jvmArgs = ImmutableList.copyOf(javaCommand.getAllJvmArgs());
+            this.sharedPackages = ImmutableSet.copyOf(builder.getSharedPackages());
+            this.logLevel = builder.getLogLevel();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            WorkerKey other = (WorkerKey) o;
+            return Objects.equal(executable, other.executable)
+                && Objects.equal(workingDir, other.workingDir)
+                && environment.equals(other.environment)
+                && jvmArgs.equals(other.jvmArgs)
+                && sharedPackages.equals(other.sharedPackages)
+                && logLevel == other.logLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(executable, workingDir, environment, jvmArgs, sharedPackages, logLevel);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+/**
+ * Receives the test events of a {@link ReusableTestWorker}. The end of a session is sent on the same channel as the test events,
+ * so it is only received once all events of the session have been received.
+ */
+public interface TestWorkerSessionResultProcessor extends TestResultProcessor {
+    /**
+     * Called when a session has ended.
+     *
+     * @param reusable whether the worker can run another session.
+     */
+    void sessionCompleted(boolean reusable);
+}
@@ -129,6 +129,47 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads large messages with multibyte characters"() {
+        def message = "[é中😀]" * 5000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, message))
+        writer.onOutput(1, 2, output(StdOut, "[out]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdOut) == message
+        collectAllOutput(reader, 1, StdOut) == message + "[out]"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "reads new output after the store has been written again"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[first]"))
+        writer.close()
+        def reader = output.reader()
+        collectAllOutput(reader, 1, StdOut)
+        reader.close()
+
+        writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[second]"))
+        writer.onOutput(2, 1, output(StdOut, "[other]"))
+        writer.close()
+        reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "[second]"
+        collectAllOutput(reader, 2, StdOut) == "[other]"
+
+        cleanup:
+        reader.close()
+    }
+
     def "can query whether output is available for a test class"() {
         when:
         def writer = output.writer()
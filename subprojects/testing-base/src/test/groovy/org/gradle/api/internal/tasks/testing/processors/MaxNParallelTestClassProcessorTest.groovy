@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -168,6 +169,35 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.processTestClass(test)
     }
 
+    def assignsTestClassesToProcessorWithLeastEstimatedWork() {
+        def durations = new TestClassDurations(Slow: 100L, Fast1: 10L, Fast2: 10L, Fast3: 10L)
+        def balancingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, durations)
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        balancingProcessor.startProcessing(resultProcessor)
+
+        when:
+        ['Slow', 'Fast1', 'Fast2', 'Fast3'].each { balancingProcessor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor1.processTestClass(new DefaultTestClassRunInfo('Slow'))
+        0 * asyncProcessor1.processTestClass(_)
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('Fast1'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('Fast2'))
+        1 * asyncProcessor2.processTestClass(new DefaultTestClassRunInfo('Fast3'))
+    }
+
     def "stopNow propagates to factory created processors"() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.report
 
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure
 import spock.lang.Specification
 
 class ClassTestResultsTest extends Specification {
@@ -25,4 +26,20 @@ class ClassTestResultsTest extends Specification {
         new ClassTestResults(1, 'org.gradle.Test', 'TestDisplay', null).reportName == 'TestDisplay'
         new ClassTestResults(2, 'Test', 'TestDisplay', null).reportName == 'TestDisplay'
     }
+
+    def keepsCountsAndFailuresWhenTestResultsAreDiscarded() {
+        def results = new ClassTestResults(1, 'org.gradle.Test', null)
+        results.addTest('passed', 'passed', 10)
+        results.addTest('failed', 'failed', 20).addFailure(new TestFailure('broken', 'stack trace', 'java.lang.RuntimeException'))
+
+        when:
+        results.discardTestResults()
+
+        then:
+        results.testResults.empty
+        results.testCount == 2
+        results.failureCount == 1
+        results.failures*.name == ['failed']
+        results.duration == 30
+    }
 }
@@ -70,6 +70,25 @@ class ForkingTestClassProcessorTest extends Specification {
         0 * remoteProcessor._
     }
 
+    def "reserves reusable worker on first test when a worker manager is given"() {
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def reusingProcessor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, Mock(ReusableTestWorkerManager)])
+
+        when:
+        reusingProcessor.processTestClass(test1)
+        reusingProcessor.processTestClass(test2)
+
+        then:
+        1 * workerLease.startChild()
+        1 * reusingProcessor.reserveWorker() >> remoteProcessor
+        0 * reusingProcessor.forkProcess()
+        1 * remoteProcessor.processTestClass(test1)
+        1 * remoteProcessor.processTestClass(test2)
+        0 * remoteProcessor._
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
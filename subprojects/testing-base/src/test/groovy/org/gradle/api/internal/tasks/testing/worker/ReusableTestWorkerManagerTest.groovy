@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.health.memory.JvmMemoryStatus
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ReusableTestWorkerManagerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.md5().hashBytes(file.bytes) }
+    }
+    def memoryManager = Mock(MemoryManager)
+    def remoteProcessor = Mock(ReusableRemoteTestClassProcessor)
+    def workerProcess = Mock(WorkerProcess)
+    TestWorkerSessionResultProcessor sessionResults
+    def manager = new ReusableTestWorkerManager(fileHasher, memoryManager)
+    def jar = tmpDir.file("lib.jar").createFile()
+    def classesDir = tmpDir.createDir("classes")
+
+    def setup() {
+        workerProcess.getConnection() >> Stub(ObjectConnection) {
+            addOutgoing(ReusableRemoteTestClassProcessor) >> remoteProcessor
+            addIncoming(TestWorkerSessionResultProcessor, _) >> { sessionResults = it[1] }
+        }
+    }
+
+    def "registers itself as memory holder until stopped"() {
+        when:
+        def manager = new ReusableTestWorkerManager(fileHasher, memoryManager)
+
+        then:
+        1 * memoryManager.addMemoryHolder(_ as ReusableTestWorkerManager)
+
+        when:
+        manager.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder(manager)
+    }
+
+    def "starts worker with the jars of the classpath and loads the other entries for each session"() {
+        def builder = builder()
+
+        when:
+        def worker = manager.reserve(builder, [classesDir, jar])
+        worker.startSession(Stub(WorkerTestClassProcessorFactory), [classesDir, jar], Stub(TestResultProcessor))
+
+        then:
+        1 * builder.applicationClasspath([jar])
+        1 * builder.build() >> workerProcess
+        1 * workerProcess.start()
+        1 * remoteProcessor.startSession(_, [classesDir])
+        1 * remoteProcessor.startProcessing()
+    }
+
+    def "reuses idle worker with the same settings"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+
+        when:
+        def worker = runSession(builder, true)
+        def reused = manager.reserve(builder(), [classesDir, jar])
+
+        then:
+        reused.is(worker)
+        0 * remoteProcessor.shutdown()
+    }
+
+    def "starts new worker when settings differ"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+        def otherBuilder = builder(["-Xmx1g"])
+
+        when:
+        def worker = runSession(builder, true)
+        def other = manager.reserve(otherBuilder, [classesDir, jar])
+
+        then:
+        !other.is(worker)
+        1 * otherBuilder.build() >> Stub(WorkerProcess) {
+            getConnection() >> Stub(ObjectConnection)
+        }
+    }
+
+    def "stops idle worker when one of its jars has changed"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+        def otherBuilder = builder()
+
+        when:
+        runSession(builder, true)
+        jar << "changed"
+        manager.reserve(otherBuilder, [classesDir, jar])
+
+        then:
+        1 * remoteProcessor.shutdown()
+        1 * workerProcess.waitForStop()
+        1 * otherBuilder.build() >> Stub(WorkerProcess) {
+            getConnection() >> Stub(ObjectConnection)
+        }
+    }
+
+    def "reuses idle worker when one of its jars has been touched without changing its content"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+
+        when:
+        def worker = runSession(builder, true)
+        jar.lastModified = jar.lastModified() - 10000
+        def reused = manager.reserve(builder(), [classesDir, jar])
+
+        then:
+        reused.is(worker)
+        0 * remoteProcessor.shutdown()
+    }
+
+    def "stops worker that reports that it cannot be reused"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+
+        when:
+        runSession(builder, false)
+
+        then:
+        1 * remoteProcessor.shutdown()
+        1 * workerProcess.waitForStop()
+    }
+
+    def "stops idle workers to release memory"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+        workerProcess.getJvmMemoryStatus() >> Stub(JvmMemoryStatus) {
+            getCommittedMemory() >> 200
+        }
+
+        given:
+        runSession(builder, true)
+
+        when:
+        def released = manager.attemptToRelease(100)
+
+        then:
+        released == 200
+        1 * remoteProcessor.shutdown()
+        1 * workerProcess.waitForStop()
+    }
+
+    def "stops idle workers when stopped"() {
+        def builder = builder()
+        builder.build() >> workerProcess
+
+        given:
+        runSession(builder, true)
+
+        when:
+        manager.stop()
+
+        then:
+        1 * remoteProcessor.shutdown()
+        1 * workerProcess.waitForStop()
+    }
+
+    def "does not reuse workers that use a Java agent"() {
+        expect:
+        ReusableTestWorkerManager.canReuseWorkers(jvmArgs) == reusable
+
+        where:
+        jvmArgs                                             | reusable
+        []                                                  | true
+        ["-Xmx512m", "-Dfoo=bar"]                           | true
+        ["-Xmx512m", "-javaagent:jacocoagent.jar=out.exec"] | false
+        ["-agentlib:jdwp=transport=dt_socket"]              | false
+        ["-agentpath:/lib/libagent.so"]                     | false
+    }
+
+    private ReusableTestWorkerClient runSession(WorkerProcessBuilder builder, boolean reusable) {
+        def worker = manager.reserve(builder, [classesDir, jar])
+        worker.startSession(Stub(WorkerTestClassProcessorFactory), [classesDir, jar], Stub(TestResultProcessor))
+        sessionResults.sessionCompleted(reusable)
+        manager.release(worker)
+        return worker
+    }
+
+    private WorkerProcessBuilder builder(List<String> jvmArgs = []) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> jvmArgs
+            getActualEnvironment() >> [:]
+        }
+        def builder = Mock(WorkerProcessBuilder)
+        builder.getJavaCommand() >> javaCommand
+        builder.getSharedPackages() >> (["org.junit"] as Set)
+        return builder
+    }
+}
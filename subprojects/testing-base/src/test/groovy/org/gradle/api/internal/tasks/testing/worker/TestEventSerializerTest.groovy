@@ -22,10 +22,24 @@ import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
 import org.gradle.internal.id.CompositeIdGenerator
 import org.gradle.internal.serialize.SerializerSpec
+import spock.lang.Unroll
 
 class TestEventSerializerTest extends SerializerSpec {
     def serializer = TestEventSerializer.create()
 
+    @Unroll
+    def "can serialize all parameters of #protocol.simpleName without falling back to Java serialization"() {
+        expect:
+        protocol.methods.each { method ->
+            method.parameterTypes.each { type ->
+                assert serializer.canSerialize(type): "No serializer for parameter type ${type.name} of ${method}"
+            }
+        }
+
+        where:
+        protocol << [RemoteTestClassProcessor, TestResultProcessor]
+    }
+
     def "serializes DefaultTestClassRunInfo"() {
         def info = new DefaultTestClassRunInfo("some-test")
 
@@ -44,7 +44,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
@@ -53,12 +53,12 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new HashMap<String, Boolean>();
     }
 
     protected abstract T createClassVisitor();
 
-    private File getSuperTestClassFile(String superClassName) {
+    private TestClassVisitor superClassVisitor(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
@@ -73,13 +73,14 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return classVisitor(superTestClassFile);
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            byte[] superTestClassBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+            return superTestClassBytes == null ? null : classVisitor(superTestClassBytes, superClassName);
         }
     }
 
@@ -115,25 +116,36 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     }
 
     protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
+        byte[] classBytes;
         InputStream classStream = null;
         try {
             classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+            classBytes = IOUtils.toByteArray(classStream);
         } catch (Throwable e) {
             throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
         } finally {
             IOUtils.closeQuietly(classStream);
         }
 
+        return classVisitor(classBytes, testClassFile.getAbsolutePath());
+    }
+
+    private TestClassVisitor classVisitor(byte[] classBytes, String classLocation) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+
+        try {
+            final ClassReader classReader = new ClassReader(classBytes);
+            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + classLocation, e);
+        }
+
         return classVisitor;
     }
 
     @Override
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(classVisitor(testClassFile), false);
     }
 
     /**
@@ -141,9 +153,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    private boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
+    private boolean processTestClass(final TestClassVisitor classVisitor, boolean superClass) {
         boolean isTest = classVisitor.isTest();
 
         if (!isTest) { // scan parent class
@@ -152,14 +162,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                final File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-                }
+                isTest = processSuperClass(superClassName);
             }
         }
 
@@ -170,15 +173,26 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     protected abstract boolean isKnownTestCaseClassName(String testCaseClassName);
 
-    private boolean processSuperClass(File testClassFile) {
+    /**
+     * The result is remembered per super class name, so that a super class shared by many test classes is only looked up and scanned once.
+     */
+    private boolean processSuperClass(String superClassName) {
         boolean isTest;
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+        Boolean isSuperTest = superClasses.get(superClassName);
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            final TestClassVisitor superClassVisitor = superClassVisitor(superClassName);
+
+            if (superClassVisitor != null) {
+                isTest = processTestClass(superClassVisitor, true);
+            } else {
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                    superClassName);
+                isTest = false;
+            }
 
-            superClasses.put(testClassFile, isTest);
+            superClasses.put(superClassName, isTest);
         } else {
             isTest = isSuperTest;
         }
@@ -15,34 +15,30 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.text.StrBuilder;
 import org.gradle.api.GradleException;
-import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
-import org.gradle.api.internal.file.TemporaryFileProvider;
-import org.gradle.internal.Factory;
-import org.gradle.util.JarUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
- * This class manages class file extraction from library jar files.
+ * This class manages reading class files from library jar files. Class files are read directly from the jars,
+ * without extracting them to temporary files.
  */
 public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
     private final Map<String, Set<File>> packageJarFilesMappings;
-    private final Map<String, File> extractedJarClasses;
     private final Set<String> unextractableClasses;
-    private final TemporaryFileProvider tempDirProvider;
 
-    public ClassFileExtractionManager(final Factory<File> tempDirFactory) {
-        assert tempDirFactory != null;
-        tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
+    public ClassFileExtractionManager() {
         packageJarFilesMappings = new HashMap<String, Set<File>>();
-        extractedJarClasses = new HashMap<String, File>();
         unextractableClasses = new TreeSet<String>();
     }
 
@@ -66,62 +62,61 @@ public class ClassFileExtractionManager {
     }
 
     /**
-     * Retrieve the file that contains the extracted class file. <p/> This method will extract the class file if it is
-     * not extracted yet. Extracted class files are deleted on exit of the Gradle process. The same class is only
-     * extracted once.
+     * Retrieve the content of a class file from the library jars. <p/> A class that cannot be found in the library jars
+     * is remembered, so the jars are only searched once for it.
      *
-     * @param className Name of the class to extract.
-     * @return File that contains the extracted class file.
+     * @param className Name of the class to read.
+     * @return The content of the class file, or null when the class is not found in the library jars.
      */
-    public File getLibraryClassFile(final String className) {
+    public byte[] getLibraryClassBytes(final String className) {
         if (unextractableClasses.contains(className)) {
             return null;
-        } else {
-            if (!extractedJarClasses.containsKey(className)) {
-                if (!extractClassFile(className)) {
-                    unextractableClasses.add(className);
-                }
-            }
-
-            return extractedJarClasses.get(className);
         }
+        byte[] classBytes = readClassFile(className);
+        if (classBytes == null) {
+            unextractableClasses.add(className);
+        }
+        return classBytes;
     }
 
-    private boolean extractClassFile(final String className) {
-        boolean classFileExtracted = false;
-
-        final File extractedClassFile = tempFile();
+    private byte[] readClassFile(final String className) {
         final String classFileName = new StrBuilder().append(className).append(".class").toString();
         final String classNamePackage = classNamePackage(className);
         final Set<File> packageJarFiles = packageJarFilesMappings.get(classNamePackage);
 
-        File classFileSourceJar = null;
-
-        if (packageJarFiles != null && !packageJarFiles.isEmpty()) {
-            final Iterator<File> packageJarFilesIt = packageJarFiles.iterator();
-
-            while (!classFileExtracted && packageJarFilesIt.hasNext()) {
-                final File jarFile = packageJarFilesIt.next();
-
+        if (packageJarFiles != null) {
+            for (File jarFile : packageJarFiles) {
                 try {
-                    classFileExtracted = JarUtil.extractZipEntry(jarFile, classFileName, extractedClassFile);
-
-                    if (classFileExtracted) {
-                        classFileSourceJar = jarFile;
+                    byte[] classBytes = readZipEntry(jarFile, classFileName);
+                    if (classBytes != null) {
+                        LOGGER.debug("read class {} from {}", className, jarFile.getName());
+                        return classBytes;
                     }
                 } catch (IOException e) {
-                    throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
+                    throw new GradleException("failed to read class file from jar (" + jarFile + ")", e);
                 }
             }
+        } // super class not on the classpath - unable to scan parent class
 
-            if (classFileExtracted) {
-                LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
+        return null;
+    }
 
-                extractedJarClasses.put(className, extractedClassFile);
+    private static byte[] readZipEntry(File jarFile, String entryName) throws IOException {
+        ZipFile zipFile = new ZipFile(jarFile);
+        try {
+            ZipEntry entry = zipFile.getEntry(entryName);
+            if (entry == null) {
+                return null;
             }
-        } // super class not on the classpath - unable to scan parent class
-
-        return classFileExtracted;
+            InputStream entryStream = zipFile.getInputStream(entry);
+            try {
+                return IOUtils.toByteArray(entryStream);
+            } finally {
+                entryStream.close();
+            }
+        } finally {
+            zipFile.close();
+        }
     }
 
     private String classNamePackage(final String className) {
@@ -133,8 +128,4 @@ public class ClassFileExtractionManager {
             return className.substring(0, lastSlashIndex + 1);
         }
     }
-
-    private File tempFile() {
-        return tempDirProvider.createTemporaryFile("jar_extract_", "_tmp"); // Could throw UncheckedIOException
-    }
 }
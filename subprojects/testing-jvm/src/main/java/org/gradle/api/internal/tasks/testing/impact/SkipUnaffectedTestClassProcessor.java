@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.time.Clock;
+
+/**
+ * Only passes the test classes that are affected by changes since the previous run to its delegate.
+ *
+ * <p>The tests of the skipped test classes are reported as skipped once the delegate has stopped, so that they still appear in the test
+ * results and reports. They are reported after all other test events, so that they do not interleave with the events of the test workers.</p>
+ */
+public class SkipUnaffectedTestClassProcessor implements TestClassProcessor {
+    private final TestImpactAnalysis testImpactAnalysis;
+    private final TestClassProcessor delegate;
+    private final Clock clock;
+    private final IdGenerator<?> idGenerator = new CompositeIdGenerator("skipped", new LongIdGenerator());
+    private TestResultProcessor resultProcessor;
+
+    public SkipUnaffectedTestClassProcessor(TestImpactAnalysis testImpactAnalysis, TestClassProcessor delegate, Clock clock) {
+        this.testImpactAnalysis = testImpactAnalysis;
+        this.delegate = delegate;
+        this.clock = clock;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (testImpactAnalysis.isAffected(testClass.getTestClassName())) {
+            delegate.processTestClass(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+        for (TestClassResult skipped : testImpactAnalysis.getSkippedTestClasses()) {
+            reportSkipped(skipped);
+        }
+    }
+
+    private void reportSkipped(TestClassResult testClass) {
+        long now = clock.getCurrentTime();
+        Object classId = idGenerator.generateId();
+        resultProcessor.started(new DefaultTestClassDescriptor(classId, testClass.getClassName(), testClass.getClassDisplayName()), new TestStartEvent(now));
+        for (TestMethodResult method : testClass.getResults()) {
+            Object methodId = idGenerator.generateId();
+            resultProcessor.started(new DefaultTestDescriptor(methodId, testClass.getClassName(), method.getName(), testClass.getClassDisplayName(), method.getDisplayName()), new TestStartEvent(now, classId));
+            resultProcessor.completed(methodId, new TestCompleteEvent(now, TestResult.ResultType.SKIPPED));
+        }
+        resultProcessor.completed(classId, new TestCompleteEvent(now));
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.incremental.asm.ClassDependenciesVisitor;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.objectweb.asm.ClassReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Selects the test classes that need to run, based on the classes they depend on. A test class that passed in a previous run is skipped
+ * when neither its own class file nor any class it depends on, directly or transitively, has changed since.
+ *
+ * <p>Dependencies are found by analyzing the class files in the class directories of the test runtime classpath, so classes that are only
+ * used reflectively are not taken into account. To limit the impact of such dependencies, all test classes are run when a jar, a resource
+ * or a JVM argument has changed, and after a number of selective runs.</p>
+ *
+ * <p>A test class is only skipped when its results from the previous run are available, so that they can be reported as skipped. The duration
+ * of a skipped test class is kept from the last run in which it was executed.</p>
+ */
+public class TestImpactAnalysis {
+    public static final String ENABLED_SYSPROP = "org.gradle.internal.test.impact-analysis";
+    public static final String FULL_RUN_INTERVAL_SYSPROP = "org.gradle.internal.test.impact-analysis.full-run-interval";
+    private static final int DEFAULT_FULL_RUN_INTERVAL = 10;
+    private static final int STATE_VERSION = 3;
+    private static final Logger LOGGER = Logging.getLogger(TestImpactAnalysis.class);
+
+    private final File stateFile;
+    private final Map<String, File> classFiles;
+    private final HashCode environmentHash;
+    private final boolean fullRun;
+    private final int selectiveRuns;
+    private final Map<String, TestClassState> previousTestClasses;
+    private final Map<String, TestClassResult> previousResults;
+    private final Map<String, ClassInfo> analyzedClasses = new HashMap<String, ClassInfo>();
+    private final Map<String, HashCode> transitiveHashes = new HashMap<String, HashCode>();
+    private final Map<String, HashCode> scheduledTestClasses = new HashMap<String, HashCode>();
+    private final List<TestClassResult> skippedTestClasses = new ArrayList<TestClassResult>();
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_SYSPROP);
+    }
+
+    /**
+     * Indexes the given classpath and loads the state of the previous run from the given file.
+     *
+     * @param previousResults the results of the previous run by test class name
+     */
+    public static TestImpactAnalysis load(File stateFile, Iterable<File> classpath, Iterable<String> jvmArgs, Map<String, TestClassResult> previousResults) {
+        Map<String, File> classFiles = new HashMap<String, File>();
+        Hasher environmentHasher = Hashing.md5().newHasher();
+        for (String jvmArg : jvmArgs) {
+            environmentHasher.putString(jvmArg);
+        }
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                visitDirectory(file, "", classFiles, environmentHasher);
+            } else if (file.isFile()) {
+                environmentHasher.putString(file.getAbsolutePath());
+                environmentHasher.putLong(file.length());
+                environmentHasher.putLong(file.lastModified());
+            }
+        }
+        int fullRunInterval = Integer.getInteger(FULL_RUN_INTERVAL_SYSPROP, DEFAULT_FULL_RUN_INTERVAL);
+        return new TestImpactAnalysis(stateFile, classFiles, environmentHasher.hash(), fullRunInterval, previousResults);
+    }
+
+    private static void visitDirectory(File dir, String relativePath, Map<String, File> classFiles, Hasher environmentHasher) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            String childPath = relativePath + child.getName();
+            if (child.isDirectory()) {
+                visitDirectory(child, childPath + "/", classFiles, environmentHasher);
+            } else if (childPath.endsWith(".class")) {
+                String className = childPath.substring(0, childPath.length() - ".class".length()).replace('/', '.');
+                if (!classFiles.containsKey(className)) {
+                    classFiles.put(className, child);
+                }
+            } else {
+                environmentHasher.putString(childPath);
+                environmentHasher.putHash(Hashing.md5().hashBytes(readFile(child)));
+            }
+        }
+    }
+
+    private TestImpactAnalysis(File stateFile, Map<String, File> classFiles, HashCode environmentHash, int fullRunInterval, Map<String, TestClassResult> previousResults) {
+        this.stateFile = stateFile;
+        this.classFiles = classFiles;
+        this.environmentHash = environmentHash;
+        State previousState = readState(stateFile);
+        this.fullRun = previousState == null || !previousState.environmentHash.equals(environmentHash) || previousState.selectiveRuns >= fullRunInterval;
+        this.selectiveRuns = fullRun ? 0 : previousState.selectiveRuns + 1;
+        this.previousTestClasses = previousState == null ? Collections.<String, TestClassState>emptyMap() : previousState.testClasses;
+        this.previousResults = previousResults;
+    }
+
+    /**
+     * Returns whether the given test class needs to run.
+     */
+    public boolean isAffected(String testClassName) {
+        HashCode hash = classFiles.containsKey(testClassName) ? transitiveHash(testClassName) : null;
+        TestClassState previous = previousTestClasses.get(testClassName);
+        TestClassResult previousResult = previousResults.get(testClassName);
+        if (!fullRun && hash != null && previous != null && hash.equals(previous.hash) && previousResult != null) {
+            skippedTestClasses.add(previousResult);
+            return false;
+        }
+        scheduledTestClasses.put(testClassName, hash);
+        return true;
+    }
+
+    /**
+     * Returns the previous results of the test classes that have been skipped.
+     */
+    public List<TestClassResult> getSkippedTestClasses() {
+        return skippedTestClasses;
+    }
+
+    /**
+     * Returns the durations of the test classes that passed, from the last run in which they were executed.
+     */
+    public Map<String, Long> getTestClassDurations() {
+        Map<String, Long> durations = new HashMap<String, Long>(previousTestClasses.size());
+        for (Map.Entry<String, TestClassState> entry : previousTestClasses.entrySet()) {
+            durations.put(entry.getKey(), entry.getValue().duration);
+        }
+        return durations;
+    }
+
+    /**
+     * Stores the state for the next run. Test classes that ran and did not pass will run again in the next run.
+     *
+     * @param passedTestClassDurations the durations of the test classes that passed, by name
+     */
+    public void storeResults(Map<String, Long> passedTestClassDurations) {
+        Map<String, TestClassState> testClasses = new LinkedHashMap<String, TestClassState>(previousTestClasses);
+        for (Map.Entry<String, HashCode> entry : scheduledTestClasses.entrySet()) {
+            Long duration = passedTestClassDurations.get(entry.getKey());
+            if (entry.getValue() != null && duration != null) {
+                testClasses.put(entry.getKey(), new TestClassState(entry.getValue(), duration));
+            } else {
+                testClasses.remove(entry.getKey());
+            }
+        }
+        try {
+            writeState(new State(selectiveRuns, environmentHash, testClasses));
+        } catch (IOException e) {
+            LOGGER.warn("Could not write test impact analysis state to " + stateFile + ".", e);
+        }
+        LOGGER.info("Test impact analysis ran {} test classes and skipped {} unaffected test classes{}.", scheduledTestClasses.size(), skippedTestClasses.size(), fullRun ? " (full run)" : "");
+    }
+
+    /**
+     * Returns a hash of the given class and of the classes it depends on, directly or transitively. The hash is computed once for each
+     * strongly connected component of the dependency graph, from the classes in the component and the hashes of the components it depends
+     * on, so that the dependencies of each class are only visited once.
+     */
+    private HashCode transitiveHash(String className) {
+        HashCode hash = transitiveHashes.get(className);
+        if (hash == null) {
+            computeTransitiveHashes(className);
+            hash = transitiveHashes.get(className);
+        }
+        return hash;
+    }
+
+    // Tarjan's algorithm, without recursion so that long dependency chains do not overflow the stack
+    private void computeTransitiveHashes(String rootClassName) {
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        Deque<String> componentStack = new ArrayDeque<String>();
+        Set<String> onComponentStack = new HashSet<String>();
+        Deque<Visit> visits = new ArrayDeque<Visit>();
+        visits.push(startVisit(rootClassName, indexes, componentStack, onComponentStack));
+        while (!visits.isEmpty()) {
+            Visit visit = visits.peek();
+            if (visit.dependencies.hasNext()) {
+                String dependency = visit.dependencies.next();
+                if (!classFiles.containsKey(dependency) || transitiveHashes.containsKey(dependency)) {
+                    continue;
+                }
+                Integer dependencyIndex = indexes.get(dependency);
+                if (dependencyIndex == null) {
+                    visits.push(startVisit(dependency, indexes, componentStack, onComponentStack));
+                } else if (onComponentStack.contains(dependency)) {
+                    visit.lowLink = Math.min(visit.lowLink, dependencyIndex);
+                }
+                continue;
+            }
+            visits.pop();
+            if (visit.lowLink == visit.index) {
+                SortedSet<String> component = new TreeSet<String>();
+                String member;
+                do {
+                    member = componentStack.pop();
+                    onComponentStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(visit.className));
+                HashCode componentHash = componentHash(component);
+                for (String className : component) {
+                    transitiveHashes.put(className, componentHash);
+                }
+            }
+            Visit parent = visits.peek();
+            if (parent != null) {
+                parent.lowLink = Math.min(parent.lowLink, visit.lowLink);
+            }
+        }
+    }
+
+    private Visit startVisit(String className, Map<String, Integer> indexes, Deque<String> componentStack, Set<String> onComponentStack) {
+        int index = indexes.size();
+        indexes.put(className, index);
+        componentStack.push(className);
+        onComponentStack.add(className);
+        return new Visit(className, index, analyze(className).dependencies.iterator());
+    }
+
+    // The components that the given component depends on have all been hashed at this point
+    private HashCode componentHash(SortedSet<String> component) {
+        SortedSet<HashCode> dependencyHashes = new TreeSet<HashCode>();
+        Hasher hasher = Hashing.md5().newHasher();
+        for (String className : component) {
+            ClassInfo classInfo = analyze(className);
+            hasher.putString(className);
+            hasher.putHash(classInfo.hash);
+            for (String dependency : classInfo.dependencies) {
+                if (classFiles.containsKey(dependency) && !component.contains(dependency)) {
+                    dependencyHashes.add(transitiveHashes.get(dependency));
+                }
+            }
+        }
+        for (HashCode dependencyHash : dependencyHashes) {
+            hasher.putHash(dependencyHash);
+        }
+        return hasher.hash();
+    }
+
+    private ClassInfo analyze(String className) {
+        ClassInfo classInfo = analyzedClasses.get(className);
+        if (classInfo == null) {
+            byte[] classBytes = readFile(classFiles.get(className));
+            Set<String> dependencies = ClassDependenciesVisitor.analyze(className, new ClassReader(classBytes)).getClassDependencies();
+            classInfo = new ClassInfo(Hashing.md5().hashBytes(classBytes), dependencies);
+            analyzedClasses.put(className, classInfo);
+        }
+        return classInfo;
+    }
+
+    private static byte[] readFile(File file) {
+        try {
+            return Files.toByteArray(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static State readState(File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != STATE_VERSION) {
+                    return null;
+                }
+                int selectiveRuns = decoder.readSmallInt();
+                HashCode environmentHash = HashCode.fromBytes(decoder.readBinary());
+                int count = decoder.readSmallInt();
+                Map<String, TestClassState> testClasses = new HashMap<String, TestClassState>(count);
+                for (int i = 0; i < count; i++) {
+                    String testClassName = decoder.readString();
+                    HashCode hash = HashCode.fromBytes(decoder.readBinary());
+                    testClasses.put(testClassName, new TestClassState(hash, decoder.readSmallLong()));
+                }
+                return new State(selectiveRuns, environmentHash, testClasses);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read test impact analysis state from {}, running all test classes.", stateFile, e);
+            return null;
+        }
+    }
+
+    private void writeState(State state) throws IOException {
+        OutputStream outputStream = new FileOutputStream(stateFile);
+        try {
+            FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+            encoder.writeSmallInt(STATE_VERSION);
+            encoder.writeSmallInt(state.selectiveRuns);
+            encoder.writeBinary(state.environmentHash.toByteArray());
+            encoder.writeSmallInt(state.testClasses.size());
+            for (Map.Entry<String, TestClassState> entry : state.testClasses.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeBinary(entry.getValue().hash.toByteArray());
+                encoder.writeSmallLong(entry.getValue().duration);
+            }
+            encoder.flush();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static class ClassInfo {
+        private final HashCode hash;
+        private final Set<String> dependencies;
+
+        ClassInfo(HashCode hash, Set<String> dependencies) {
+            this.hash = hash;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private static class Visit {
+        private final String className;
+        private final int index;
+        private final Iterator<String> dependencies;
+        private int lowLink;
+
+        Visit(String className, int index, Iterator<String> dependencies) {
+            this.className = className;
+            this.index = index;
+            this.dependencies = dependencies;
+            this.lowLink = index;
+        }
+    }
+
+    private static class TestClassState {
+        private final HashCode hash;
+        private final long duration;
+
+        TestClassState(HashCode hash, long duration) {
+            this.hash = hash;
+            this.duration = duration;
+        }
+    }
+
+    private static class State {
+        private final int selectiveRuns;
+        private final HashCode environmentHash;
+        private final Map<String, TestClassState> testClasses;
+
+        State(int selectiveRuns, HashCode environmentHash, Map<String, TestClassState> testClasses) {
+            this.selectiveRuns = selectiveRuns;
+            this.environmentHash = environmentHash;
+            this.testClasses = testClasses;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
@@ -36,11 +37,13 @@ import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalysis;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerManager;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -76,7 +79,9 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -149,11 +154,18 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestExecuter<JvmTestExecutionSpec> testExecuter;
+    private TestImpactAnalysis testImpactAnalysis;
 
     public Test() {
         patternSet = getFileResolver().getPatternSetFactory().create();
         forkOptions = new DefaultJavaForkOptions(getFileResolver());
         forkOptions.setEnableAssertions(true);
+        getOutputs().doNotCacheIf("Test impact analysis is enabled", new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return TestImpactAnalysis.isEnabled();
+            }
+        });
 
         // TODO: This can go away when we remove -Dtest.single
         String singleTest = getTestSingleSystemPropertyValue();
@@ -567,24 +579,42 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     protected JvmTestExecutionSpec createTestExecutionSpec() {
         DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(getFileResolver());
         copyTo(javaForkOptions);
-        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses());
+        Set<String> previousFailedTestClasses = new HashSet<String>();
+        Map<String, Long> previousTestClassDurations = new HashMap<String, Long>();
+        Map<String, TestClassResult> previousResults = new HashMap<String, TestClassResult>();
+        readPreviousTestResults(previousFailedTestClasses, previousTestClassDurations, previousResults);
+        // All test classes selected by a filter run, so that asking for particular tests always runs them
+        if (TestImpactAnalysis.isEnabled() && !hasTestFilter()) {
+            Set<File> classpath = new LinkedHashSet<File>(getTestClassesDirs().getFiles());
+            classpath.addAll(getClasspath().getFiles());
+            testImpactAnalysis = TestImpactAnalysis.load(new File(getTemporaryDir(), "impact.bin"), classpath, getAllJvmArgs(), previousResults);
+            // Skipped test classes are reported without their durations, so keep the durations from when they last ran
+            previousTestClassDurations.putAll(testImpactAnalysis.getTestClassDurations());
+        }
+        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), previousFailedTestClasses, previousTestClassDurations, testImpactAnalysis);
+    }
+
+    private boolean hasTestFilter() {
+        DefaultTestFilter filter = (DefaultTestFilter) getFilter();
+        return !filter.getIncludePatterns().isEmpty() || !filter.getCommandLineIncludePatterns().isEmpty();
     }
 
-    private Set<String> getPreviousFailedTestClasses() {
+    /**
+     * Collects the failed test classes, the test class durations and the results of the previous test run, which are used to schedule the test classes of this run.
+     */
+    private void readPreviousTestResults(final Set<String> previousFailedTestClasses, final Map<String, Long> previousTestClassDurations, final Map<String, TestClassResult> previousResults) {
         TestResultSerializer serializer = new TestResultSerializer(getBinResultsDir());
         if (serializer.isHasResults()) {
-            final Set<String> previousFailedTestClasses = new HashSet<String>();
             serializer.read(new Action<TestClassResult>() {
                 @Override
                 public void execute(TestClassResult testClassResult) {
                     if (testClassResult.getFailuresCount() > 0) {
                         previousFailedTestClasses.add(testClassResult.getClassName());
                     }
+                    previousTestClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
+                    previousResults.put(testClassResult.getClassName(), testClassResult);
                 }
             });
-            return previousFailedTestClasses;
-        } else {
-            return Collections.emptySet();
         }
     }
 
@@ -603,9 +633,26 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
             super.executeTests();
         } finally {
             testFramework = null;
+            if (testImpactAnalysis != null) {
+                storeTestImpactAnalysis();
+            }
         }
     }
 
+    private void storeTestImpactAnalysis() {
+        final Map<String, Long> passedTestClassDurations = new HashMap<String, Long>();
+        new TestResultSerializer(getBinResultsDir()).read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult testClassResult) {
+                if (testClassResult.getFailuresCount() == 0) {
+                    passedTestClassDurations.put(testClassResult.getClassName(), testClassResult.getDuration());
+                }
+            }
+        });
+        testImpactAnalysis.storeResults(passedTestClassDurations);
+        testImpactAnalysis = null;
+    }
+
     @Override
     protected TestExecuter<JvmTestExecutionSpec> createTestExecuter() {
         if (testExecuter == null) {
@@ -615,7 +662,8 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                ReusableTestWorkerManager.isEnabled() ? getServices().get(ReusableTestWorkerManager.class) : null);
         } else {
             return testExecuter;
         }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.JarUtils
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def manager = new ClassFileExtractionManager()
+
+    def "reads class file from library jar"() {
+        def jar = tmpDir.file("lib.jar")
+        jar.bytes = JarUtils.jarWithContents("org/": "", "org/test/": "", "org/test/Foo.class": "foo", "org/test/Bar.class": "bar")
+        manager.addLibraryJar(jar)
+
+        expect:
+        new String(manager.getLibraryClassBytes("org/test/Foo")) == "foo"
+        new String(manager.getLibraryClassBytes("org/test/Bar")) == "bar"
+    }
+
+    def "returns null for class that is not in any library jar"() {
+        def jar = tmpDir.file("lib.jar")
+        jar.bytes = JarUtils.jarWithContents("org/": "", "org/test/": "", "org/test/Foo.class": "foo")
+        manager.addLibraryJar(jar)
+
+        expect:
+        manager.getLibraryClassBytes("org/test/Missing") == null
+        manager.getLibraryClassBytes("org/other/Foo") == null
+    }
+}
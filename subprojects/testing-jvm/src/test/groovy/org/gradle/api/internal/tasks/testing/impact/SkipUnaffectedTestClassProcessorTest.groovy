@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.time.Clock
+import spock.lang.Specification
+
+class SkipUnaffectedTestClassProcessorTest extends Specification {
+    def testImpactAnalysis = Mock(TestImpactAnalysis)
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+    def clock = Stub(Clock) {
+        getCurrentTime() >> 100
+    }
+    def processor = new SkipUnaffectedTestClassProcessor(testImpactAnalysis, delegate, clock)
+
+    def "passes affected test classes to delegate"() {
+        def affected = testClass("org.AffectedTest")
+        def unaffected = testClass("org.UnaffectedTest")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(affected)
+        processor.processTestClass(unaffected)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * testImpactAnalysis.isAffected("org.AffectedTest") >> true
+        1 * delegate.processTestClass(affected)
+        1 * testImpactAnalysis.isAffected("org.UnaffectedTest") >> false
+        0 * delegate._
+    }
+
+    def "reports tests of skipped test classes as skipped after delegate has stopped"() {
+        def previousResult = new TestClassResult(1, "org.UnaffectedTest", 0)
+            .add(new TestMethodResult(1, "first", TestResult.ResultType.SUCCESS, 10, 20))
+            .add(new TestMethodResult(2, "second", TestResult.ResultType.SUCCESS, 10, 30))
+        testImpactAnalysis.getSkippedTestClasses() >> [previousResult]
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+
+        then:
+        1 * resultProcessor.started({ it.className == "org.UnaffectedTest" && it.composite }, { it.parentId == null })
+
+        then:
+        1 * resultProcessor.started({ it.name == "first" && !it.composite }, { it.parentId != null })
+        1 * resultProcessor.completed(_, { it.resultType == TestResult.ResultType.SKIPPED })
+
+        then:
+        1 * resultProcessor.started({ it.name == "second" && !it.composite }, { it.parentId != null })
+        1 * resultProcessor.completed(_, { it.resultType == TestResult.ResultType.SKIPPED })
+
+        then:
+        1 * resultProcessor.completed(_, { it.resultType == null })
+        0 * resultProcessor._
+    }
+
+    def "does not report skipped test classes when stopped immediately"() {
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.stopNow()
+
+        then:
+        1 * delegate.stopNow()
+        0 * testImpactAnalysis.getSkippedTestClasses()
+        0 * resultProcessor._
+    }
+
+    private TestClassRunInfo testClass(String name) {
+        Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+}
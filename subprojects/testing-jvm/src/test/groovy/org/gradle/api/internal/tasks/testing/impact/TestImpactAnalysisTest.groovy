@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class TestImpactAnalysisTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def stateFile = tmpDir.file("impact.bin")
+    def classesDir = tmpDir.createDir("classes")
+    def testClassesDir = tmpDir.createDir("test-classes")
+    def previousResults = [
+        "org.FooTest": new TestClassResult(1, "org.FooTest", 0),
+        "org.OtherTest": new TestClassResult(2, "org.OtherTest", 0)
+    ]
+
+    def setup() {
+        writeClass(classesDir, "org/Foo", "org/Bar")
+        writeClass(classesDir, "org/Bar")
+        writeClass(classesDir, "org/Other")
+        writeClass(testClassesDir, "org/FooTest", "org/Foo")
+        writeClass(testClassesDir, "org/OtherTest", "org/Other")
+    }
+
+    def "runs all test classes without previous state"() {
+        def analysis = load()
+
+        expect:
+        analysis.isAffected("org.FooTest")
+        analysis.isAffected("org.OtherTest")
+    }
+
+    def "skips test classes that passed when nothing has changed"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+
+        expect:
+        def analysis = load()
+        !analysis.isAffected("org.FooTest")
+        !analysis.isAffected("org.OtherTest")
+    }
+
+    def "runs test classes that failed previously"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.OtherTest": 20L])
+        }
+
+        expect:
+        def analysis = load()
+        analysis.isAffected("org.FooTest")
+        !analysis.isAffected("org.OtherTest")
+    }
+
+    def "runs test classes that transitively depend on a changed class"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+        writeClass(classesDir, "org/Bar", "org/Other")
+
+        expect:
+        def analysis = load()
+        analysis.isAffected("org.FooTest")
+        !analysis.isAffected("org.OtherTest")
+    }
+
+    def "runs test classes that depend on a changed class in a dependency cycle"() {
+        writeClass(classesDir, "org/Bar", "org/Foo")
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+
+        when:
+        def unchanged = load()
+
+        then:
+        !unchanged.isAffected("org.FooTest")
+
+        when:
+        writeClass(classesDir, "org/Bar", "org/Foo", "org/Other")
+        def analysis = load()
+
+        then:
+        analysis.isAffected("org.FooTest")
+        !analysis.isAffected("org.OtherTest")
+    }
+
+    def "runs all test classes when a resource has changed"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+        classesDir.file("org/messages.properties").text = "greeting=hello"
+
+        expect:
+        def analysis = load()
+        analysis.isAffected("org.FooTest")
+        analysis.isAffected("org.OtherTest")
+    }
+
+    def "runs all test classes after a number of selective runs"() {
+        System.setProperty(TestImpactAnalysis.FULL_RUN_INTERVAL_SYSPROP, "1")
+        load().with {
+            isAffected("org.FooTest")
+            storeResults(["org.FooTest": 10L])
+        }
+        load().with {
+            assert !isAffected("org.FooTest")
+            storeResults([:])
+        }
+
+        expect:
+        load().isAffected("org.FooTest")
+
+        cleanup:
+        System.clearProperty(TestImpactAnalysis.FULL_RUN_INTERVAL_SYSPROP)
+    }
+
+    def "runs test classes without previous results"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+        previousResults.remove("org.FooTest")
+
+        expect:
+        def analysis = load()
+        analysis.isAffected("org.FooTest")
+        !analysis.isAffected("org.OtherTest")
+    }
+
+    def "provides previous results of skipped test classes"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+
+        when:
+        def analysis = load()
+        analysis.isAffected("org.FooTest")
+        analysis.isAffected("org.OtherTest")
+
+        then:
+        analysis.skippedTestClasses == [previousResults["org.FooTest"], previousResults["org.OtherTest"]]
+    }
+
+    def "keeps durations of test classes from the last run in which they were executed"() {
+        load().with {
+            isAffected("org.FooTest")
+            isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 10L, "org.OtherTest": 20L])
+        }
+        writeClass(classesDir, "org/Bar", "org/Other")
+        load().with {
+            assert isAffected("org.FooTest")
+            assert !isAffected("org.OtherTest")
+            storeResults(["org.FooTest": 15L, "org.OtherTest": 0L])
+        }
+
+        expect:
+        load().testClassDurations == ["org.FooTest": 15L, "org.OtherTest": 20L]
+    }
+
+    private TestImpactAnalysis load() {
+        TestImpactAnalysis.load(stateFile, [testClassesDir, classesDir], ["-Xmx64m"], previousResults)
+    }
+
+    private static void writeClass(TestFile dir, String name, String... fieldTypes) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+        fieldTypes.eachWithIndex { fieldType, i ->
+            writer.visitField(Opcodes.ACC_PUBLIC, "field${i}", "L${fieldType};", null, null).visitEnd()
+        }
+        writer.visitEnd()
+        def classFile = dir.file("${name}.class")
+        classFile.parentFile.mkdirs()
+        classFile.bytes = writer.toByteArray()
+    }
+}
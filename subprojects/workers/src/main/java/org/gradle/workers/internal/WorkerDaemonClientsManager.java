@@ -33,8 +33,8 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
 public class WorkerDaemonClientsManager implements Stoppable {
 
@@ -69,15 +69,18 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
+            // Prefer the most recently released client, as it is the most likely to still have warm JIT and class caches.
+            // This also leaves the least recently used clients idle, so they are the first to be expired
+            ListIterator<WorkerDaemonClient> it = clients.listIterator(clients.size());
+            while (it.hasPrevious()) {
+                WorkerDaemonClient candidate = it.previous();
                 if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
                     if (candidate.getLogLevel() != currentLogLevel) {
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
                         candidate.stop();
+                        allClients.remove(candidate);
                     } else {
                         return candidate;
                     }
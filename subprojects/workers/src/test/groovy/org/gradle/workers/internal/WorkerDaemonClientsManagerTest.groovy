@@ -63,6 +63,16 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "reserves most recently released idle client when several match"() {
+        def olderMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def newerMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def input = [olderMatch, newerMatch]
+
+        expect:
+        manager.reserveIdleClient(options, input) == newerMatch
+        input == [olderMatch]
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >> newClient
@@ -176,6 +186,12 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         then:
         1 * client.stop()
         shouldBeNull == null
+
+        when:
+        manager.stop()
+
+        then:
+        0 * client.stop()
     }
 
     def "prefers to stop less frequently used idle clients when releasing memory"() {